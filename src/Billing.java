@@ -13,6 +13,7 @@ public class Billing {
     private int patientID;
     private double billingAmount;
     private List<Payment> paymentHistory;
+    private RevenueTotals totals; // totals of the system this record belongs to, if any
     
     public Billing(int patientID) {
         this.patientID = patientID;
@@ -34,7 +35,11 @@ public class Billing {
     }
     
     public void setBillingAmount(double billingAmount) {
+        double old = this.billingAmount;
         this.billingAmount = billingAmount;
+        if (totals != null) {
+            totals.record(old, billingAmount, 0, 0);
+        }
     }
     
     public List<Payment> getPaymentHistory() {
@@ -45,7 +50,11 @@ public class Billing {
      * Generates a bill for the patient.
      */
     public void generateBill(double amount) {
+        double old = this.billingAmount;
         this.billingAmount += amount;
+        if (totals != null) {
+            totals.record(old, billingAmount, amount, 0);
+        }
     }
     
     /**
@@ -54,10 +63,23 @@ public class Billing {
     public void addPayment(double amount, String date) {
         Payment payment = new Payment(amount, date);
         paymentHistory.add(payment);
+        double old = this.billingAmount;
         this.billingAmount -= amount;
         if (this.billingAmount < 0) {
             this.billingAmount = 0; // No negative balance
         }
+        if (totals != null) {
+            totals.record(old, billingAmount, 0, amount);
+        }
+    }
+    
+    /**
+     * Makes this record report its changes to the given totals, after
+     * adding its current balance and payments to them.
+     */
+    void attachTo(RevenueTotals totals) {
+        totals.add(this);
+        this.totals = totals;
     }
     
     /**
@@ -0,0 +1,137 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ */
+
+/**
+ * Typed clinical fields of a patient (diagnosis, blood type, doctor, ...).
+ * Unset fields are null. The fields that take only a few distinct values
+ * can be replaced by the shared copies of a StringDictionary, see
+ * {@link #intern(StringDictionary)}.
+ */
+public class ClinicalAttributes {
+    /**
+     * Read-only attributes with every field unset.
+     */
+    public static final ClinicalAttributes EMPTY = new Empty();
+
+    private String gender;
+    private String bloodType;
+    private String diagnosis;
+    private String doctor;
+    private String hospital;
+    private String insurance;
+    private String roomNumber;
+    private String admissionType;
+    private String admissionDate;
+    private String dischargeDate;
+    private String medication;
+    private String testResults;
+
+    // Getters and setters
+    public String getGender() { return gender; }
+    public void setGender(String gender) { this.gender = gender; }
+
+    public String getBloodType() { return bloodType; }
+    public void setBloodType(String bloodType) { this.bloodType = bloodType; }
+
+    public String getDiagnosis() { return diagnosis; }
+    public void setDiagnosis(String diagnosis) { this.diagnosis = diagnosis; }
+
+    public String getDoctor() { return doctor; }
+    public void setDoctor(String doctor) { this.doctor = doctor; }
+
+    public String getHospital() { return hospital; }
+    public void setHospital(String hospital) { this.hospital = hospital; }
+
+    public String getInsurance() { return insurance; }
+    public void setInsurance(String insurance) { this.insurance = insurance; }
+
+    public String getRoomNumber() { return roomNumber; }
+    public void setRoomNumber(String roomNumber) { this.roomNumber = roomNumber; }
+
+    public String getAdmissionType() { return admissionType; }
+    public void setAdmissionType(String admissionType) { this.admissionType = admissionType; }
+
+    public String getAdmissionDate() { return admissionDate; }
+    public void setAdmissionDate(String admissionDate) { this.admissionDate = admissionDate; }
+
+    public String getDischargeDate() { return dischargeDate; }
+    public void setDischargeDate(String dischargeDate) { this.dischargeDate = dischargeDate; }
+
+    public String getMedication() { return medication; }
+    public void setMedication(String medication) { this.medication = medication; }
+
+    public String getTestResults() { return testResults; }
+    public void setTestResults(String testResults) { this.testResults = testResults; }
+
+    /**
+     * Checks whether no field has been set.
+     */
+    public boolean isEmpty() {
+        return gender == null && bloodType == null && diagnosis == null && doctor == null &&
+               hospital == null && insurance == null && roomNumber == null && admissionType == null &&
+               admissionDate == null && dischargeDate == null && medication == null && testResults == null;
+    }
+
+    /**
+     * Replaces the low-cardinality fields (gender, blood type, diagnosis,
+     * insurance, admission type, medication, test results) with the
+     * dictionary's shared copies. Doctors, hospitals, rooms and dates are
+     * close to unique and are left as they are.
+     */
+    public void intern(StringDictionary dictionary) {
+        gender = dictionary.canonical(gender);
+        bloodType = dictionary.canonical(bloodType);
+        diagnosis = dictionary.canonical(diagnosis);
+        insurance = dictionary.canonical(insurance);
+        admissionType = dictionary.canonical(admissionType);
+        medication = dictionary.canonical(medication);
+        testResults = dictionary.canonical(testResults);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        append(sb, "Gender", gender);
+        append(sb, "Blood Type", bloodType);
+        append(sb, "Diagnosis", diagnosis);
+        append(sb, "Doctor", doctor);
+        append(sb, "Hospital", hospital);
+        append(sb, "Insurance", insurance);
+        append(sb, "Room Number", roomNumber);
+        append(sb, "Admission Type", admissionType);
+        append(sb, "Admission Date", admissionDate);
+        append(sb, "Discharge Date", dischargeDate);
+        append(sb, "Medication", medication);
+        append(sb, "Test Results", testResults);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String label, String value) {
+        if (value == null) return;
+        if (sb.length() > 0) sb.append(", ");
+        sb.append(label).append(": ").append(value);
+    }
+
+    // The shared EMPTY instance; every setter throws
+    private static final class Empty extends ClinicalAttributes {
+        @Override public void setGender(String gender) { readOnly(); }
+        @Override public void setBloodType(String bloodType) { readOnly(); }
+        @Override public void setDiagnosis(String diagnosis) { readOnly(); }
+        @Override public void setDoctor(String doctor) { readOnly(); }
+        @Override public void setHospital(String hospital) { readOnly(); }
+        @Override public void setInsurance(String insurance) { readOnly(); }
+        @Override public void setRoomNumber(String roomNumber) { readOnly(); }
+        @Override public void setAdmissionType(String admissionType) { readOnly(); }
+        @Override public void setAdmissionDate(String admissionDate) { readOnly(); }
+        @Override public void setDischargeDate(String dischargeDate) { readOnly(); }
+        @Override public void setMedication(String medication) { readOnly(); }
+        @Override public void setTestResults(String testResults) { readOnly(); }
+        @Override public void intern(StringDictionary dictionary) { }
+
+        private static void readOnly() {
+            throw new UnsupportedOperationException("Read-only clinical attributes");
+        }
+    }
+}
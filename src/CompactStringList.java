@@ -0,0 +1,83 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Small list of strings for per-patient history
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Mutable list of strings backed by a plain array that grows by half its
+ * size, starting from a single slot. Patients have only a few history
+ * entries each, so this avoids the ten-slot array and the extra object of
+ * an ArrayList. Empty lists share one zero-length array. Null entries are
+ * allowed.
+ */
+public class CompactStringList extends AbstractList<String> implements RandomAccess {
+    private static final String[] EMPTY = new String[0];
+
+    private String[] values;
+    private int size;
+
+    public CompactStringList() {
+        this.values = EMPTY;
+        this.size = 0;
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index, size);
+        return values[index];
+    }
+
+    @Override
+    public String set(int index, String element) {
+        checkIndex(index, size);
+        String old = values[index];
+        values[index] = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, String element) {
+        checkIndex(index, size + 1);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public String remove(int index) {
+        checkIndex(index, size);
+        String old = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        values[--size] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -4,107 +4,348 @@
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 public class CsvImporter {
+    private static final int AUTO_ID_BASE = 10000;
+    // Lines handed to a parsing worker at a time
+    private static final int CHUNK_SIZE = 1024;
+    private static final int NO_PATIENT = Integer.MIN_VALUE;
+    private static final Future<List<ParsedRow>> END_OF_INPUT = CompletableFuture.completedFuture(null);
 
-    public static int importHealthcareCsv(PatientManagementSystem system, String csvPath) throws IOException {
+    public static ImportResult importHealthcareCsv(PatientManagementSystem system, String csvPath) throws IOException {
         Path path = Paths.get(csvPath);
+        ImportResult result = new ImportResult();
         try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            String headerLine = br.readLine();
-            if (headerLine == null) return 0;
-            List<String> headers = parseCsvLine(headerLine);
-            Map<String, Integer> idx = new HashMap<>();
-            for (int i = 0; i < headers.size(); i++) {
-                idx.put(headers.get(i).trim().toLowerCase(), i);
-            }
+            CsvSchema schema = readHeader(br);
+            if (schema == null) return result;
+            result.setMissingColumns(schema.getMissingColumns());
 
-            int created = 0;
-            int autoIdBase = 10000;
+            List<ParsedRow> batch = new ArrayList<>(CHUNK_SIZE);
             String line;
             int row = 0;
             while ((line = br.readLine()) != null) {
                 row++;
-                if (line.trim().isEmpty()) continue;
-                List<String> cols = parseCsvLine(line);
-
-                String name = get(cols, idx, "name");
-                if (name == null || name.trim().isEmpty()) name = "N/A";
-                String ageStr = get(cols, idx, "age");
-                int age = safeParseInt(ageStr, 30);
-                if (age < 1 || age > 120) age = Math.min(Math.max(age, 1), 120);
-
-                String gender = defaultNA(get(cols, idx, "gender"));
-                String bloodType = defaultNA(get(cols, idx, "blood type"));
-                String medCondition = defaultNA(get(cols, idx, "medical condition"));
-                String doctor = defaultNA(get(cols, idx, "doctor"));
-                String hospital = defaultNA(get(cols, idx, "hospital"));
-                String insurance = defaultNA(get(cols, idx, "insurance provider"));
-                String billingAmountStr = get(cols, idx, "billing amount");
-                double billingAmount = safeParseDouble(billingAmountStr, 0.0);
-                if (billingAmount < 0) billingAmount = 0.0;
-                String roomNumber = defaultNA(get(cols, idx, "room number"));
-                String admissionType = defaultNA(get(cols, idx, "admission type"));
-                String dischargeDate = defaultNA(get(cols, idx, "discharge date"));
-                String medication = defaultNA(get(cols, idx, "medication"));
-                String testResults = defaultNA(get(cols, idx, "test results"));
-
-                // Generate unique patient ID if needed
-                int pid = autoIdBase + row;
-                while (system.findPatient(pid) != null) {
-                    pid++;
+                ParsedRow parsed = parseRow(row, line, schema);
+                if (parsed != null) {
+                    batch.add(parsed);
+                    if (batch.size() == CHUNK_SIZE) {
+                        applyBatch(system, batch, result, null);
+                        batch.clear();
+                    }
                 }
+            }
+            applyBatch(system, batch, result, null);
+            return result;
+        }
+    }
+
+    /**
+     * Imports the CSV with a pipeline: one reader thread, {@code workers}
+     * threads that parse and normalize chunks of lines, and the calling thread
+     * applying rows to the system in file order. Produces exactly the same
+     * patients and IDs as {@link #importHealthcareCsv}.
+     */
+    public static ImportResult importHealthcareCsvParallel(PatientManagementSystem system, String csvPath, int workers)
+            throws IOException {
+        if (workers <= 1) {
+            return importHealthcareCsv(system, csvPath);
+        }
+        Path path = Paths.get(csvPath);
+        ImportResult result = new ImportResult();
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            CsvSchema schema = readHeader(br);
+            if (schema == null) return result;
+            result.setMissingColumns(schema.getMissingColumns());
 
-                String contact = insurance.equals("N/A") ? (hospital.equals("N/A") ? "N/A" : hospital) : insurance;
-                boolean added = system.addPatient(pid, normalizeName(name), age, contact);
-                if (!added) {
-                    continue; // skip duplicates
+            ExecutorService parsers = Executors.newFixedThreadPool(workers, daemonThreads("csv-parse"));
+            // Bounded so the reader cannot run arbitrarily far ahead of the apply stage
+            BlockingQueue<Future<List<ParsedRow>>> pending = new ArrayBlockingQueue<>(workers * 4);
+            Thread reader = new Thread(() -> readChunks(br, schema, parsers, pending), "csv-read");
+            reader.setDaemon(true);
+            reader.start();
+            try {
+                while (true) {
+                    Future<List<ParsedRow>> chunk = pending.take();
+                    if (chunk == END_OF_INPUT) break;
+                    applyBatch(system, chunk.get(), result, null);
                 }
-                created++;
-
-                Patient p = system.findPatient(pid);
-                if (p != null) {
-                    p.getMedicalHistory().add("Gender: " + gender);
-                    p.getMedicalHistory().add("Blood Type: " + bloodType);
-                    p.getMedicalHistory().add("Diagnosis: " + medCondition);
-                    p.getMedicalHistory().add("Doctor: " + doctor);
-                    p.getMedicalHistory().add("Hospital: " + hospital);
-                    p.getMedicalHistory().add("Insurance: " + insurance);
-                    p.getMedicalHistory().add("Room Number: " + roomNumber);
-                    p.getMedicalHistory().add("Admission Type: " + admissionType);
-                    p.getMedicalHistory().add("Discharge Date: " + dischargeDate);
-                    p.getMedicalHistory().add("Medication: " + medication);
-                    p.getMedicalHistory().add("Test Results: " + testResults);
-
-                    // Add visit record based on discharge date if exists
-                    String visitRecord = ("N/A".equals(dischargeDate) ? "N/A" : (dischargeDate + " - Discharge"))
-                            + ("N/A".equals(admissionType) ? "" : (" (" + admissionType + ")"));
-                    if (!visitRecord.equals("N/A")) {
-                        p.addVisitRecord(visitRecord);
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("CSV import interrupted", e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } finally {
+                reader.interrupt();
+                parsers.shutdownNow();
+                try {
+                    reader.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // Reader stage: splits the input into numbered chunks and submits them for parsing
+    private static void readChunks(BufferedReader br, CsvSchema schema, ExecutorService parsers,
+                                   BlockingQueue<Future<List<ParsedRow>>> pending) {
+        try {
+            try {
+                int row = 0;
+                List<String> lines = new ArrayList<>(CHUNK_SIZE);
+                String line;
+                while ((line = br.readLine()) != null) {
+                    lines.add(line);
+                    if (lines.size() == CHUNK_SIZE) {
+                        pending.put(submitChunk(parsers, row, lines, schema));
+                        row += lines.size();
+                        lines = new ArrayList<>(CHUNK_SIZE);
                     }
                 }
+                if (!lines.isEmpty()) {
+                    pending.put(submitChunk(parsers, row, lines, schema));
+                }
+            } catch (IOException e) {
+                pending.put(CompletableFuture.failedFuture(e));
+            }
+            pending.put(END_OF_INPUT);
+        } catch (InterruptedException e) {
+            // Apply stage stopped early
+        }
+    }
+
+    private static Future<List<ParsedRow>> submitChunk(ExecutorService parsers, int firstRow, List<String> lines,
+                                                       CsvSchema schema) {
+        return parsers.submit(() -> {
+            List<ParsedRow> rows = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                ParsedRow parsed = parseRow(firstRow + i + 1, lines.get(i), schema);
+                if (parsed != null) rows.add(parsed);
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Imports the CSV with the byte-level MappedCsvParser instead of reading
+     * it line by line into Strings. Produces the same result as
+     * {@link #importHealthcareCsv}.
+     */
+    public static ImportResult importHealthcareCsvMapped(PatientManagementSystem system, String csvPath)
+            throws IOException {
+        return new MappedImport(system, new ImportOptions(), null).run(Paths.get(csvPath));
+    }
+
+    /**
+     * Runs the mapped import with the given options on the calling thread.
+     * Batches are still applied through the options' apply executor.
+     */
+    public static ImportResult importHealthcareCsv(PatientManagementSystem system, String csvPath,
+                                                   ImportOptions options) throws IOException {
+        return new MappedImport(system, options, null).run(Paths.get(csvPath));
+    }
+
+    /**
+     * Runs the mapped import on the calling thread under the given job, so
+     * another thread can follow its progress and cancel it. The job's
+     * result is completed as well.
+     */
+    static ImportResult importHealthcareCsv(PatientManagementSystem system, String csvPath, ImportOptions options,
+                                            ImportJob job) throws IOException {
+        try {
+            ImportResult result = new MappedImport(system, options, job).run(Paths.get(csvPath));
+            job.getResult().complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            job.getResult().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts importing the CSV on a background thread and returns at once.
+     * Rows are parsed as in {@link #importHealthcareCsvMapped} and applied in
+     * batches through the options' apply executor; the import thread waits
+     * for each batch before reading on, so it never gets ahead of the
+     * executor. The job reports progress after every batch.
+     */
+    public static ImportJob startImport(PatientManagementSystem system, String csvPath, ImportOptions options) {
+        ImportJob job = new ImportJob();
+        Thread worker = new Thread(() -> {
+            try {
+                job.getResult().complete(new MappedImport(system, options, job).run(Paths.get(csvPath)));
+            } catch (Throwable e) {
+                job.getResult().completeExceptionally(e);
+            }
+        }, "csv-import");
+        worker.setDaemon(true);
+        worker.start();
+        return job;
+    }
+
+    private static CsvSchema readHeader(BufferedReader br) throws IOException {
+        String headerLine = br.readLine();
+        if (headerLine == null) return null;
+        return CsvSchema.compile(parseCsvLine(headerLine));
+    }
+
+    /**
+     * Parses and normalizes one data line. Returns null for blank lines.
+     * Safe to call from several threads.
+     */
+    private static ParsedRow parseRow(int row, String line, CsvSchema schema) {
+        if (line.trim().isEmpty()) return null;
+        List<String> cols = parseCsvLine(line);
+        return parseFields(row, i -> i < cols.size() ? cols.get(i).trim() : null, schema);
+    }
+
+    /**
+     * Builds a row from trimmed field values; {@code cols} returns null for
+     * fields past the end of the line.
+     */
+    private static ParsedRow parseFields(int row, IntFunction<String> cols, CsvSchema schema) {
+        ParsedRow r = new ParsedRow(row);
+
+        String name = get(cols, schema, CsvSchema.Column.NAME);
+        // Missing names keep the "N/A" default as is rather than title-cased
+        name = name == null || name.trim().isEmpty() ? "N/A" : normalizeName(name);
+        int age = FastNumbers.parseInt(get(cols, schema, CsvSchema.Column.AGE));
+        if (age == FastNumbers.INVALID_INT) {
+            age = 30;
+            r.markBad(schema, CsvSchema.Column.AGE);
+        }
+        if (age < 1 || age > 120) age = Math.min(Math.max(age, 1), 120);
+
+        String hospital = defaultNA(get(cols, schema, CsvSchema.Column.HOSPITAL));
+        String insurance = defaultNA(get(cols, schema, CsvSchema.Column.INSURANCE_PROVIDER));
+        // Contacts that are the insurer share its copy once the batch is applied
+        String contact = insurance.equals("N/A") ? (hospital.equals("N/A") ? "N/A" : hospital) : insurance;
+        // The ID is assigned when the row is applied
+        PatientSpec spec = new PatientSpec(0, name, age, contact);
+        r.spec = spec;
+
+        ClinicalAttributes attrs = spec.getClinicalAttributes();
+        attrs.setGender(defaultNA(get(cols, schema, CsvSchema.Column.GENDER)));
+        attrs.setBloodType(defaultNA(get(cols, schema, CsvSchema.Column.BLOOD_TYPE)));
+        attrs.setDiagnosis(defaultNA(get(cols, schema, CsvSchema.Column.MEDICAL_CONDITION)));
+        attrs.setAdmissionDate(defaultNA(get(cols, schema, CsvSchema.Column.DATE_OF_ADMISSION)));
+        attrs.setDoctor(defaultNA(get(cols, schema, CsvSchema.Column.DOCTOR)));
+        attrs.setHospital(hospital);
+        attrs.setInsurance(insurance);
+        attrs.setRoomNumber(defaultNA(get(cols, schema, CsvSchema.Column.ROOM_NUMBER)));
+        String admissionType = defaultNA(get(cols, schema, CsvSchema.Column.ADMISSION_TYPE));
+        attrs.setAdmissionType(admissionType);
+        String dischargeDate = defaultNA(get(cols, schema, CsvSchema.Column.DISCHARGE_DATE));
+        attrs.setDischargeDate(dischargeDate);
+        attrs.setMedication(defaultNA(get(cols, schema, CsvSchema.Column.MEDICATION)));
+        attrs.setTestResults(defaultNA(get(cols, schema, CsvSchema.Column.TEST_RESULTS)));
+
+        // Add visit record based on discharge date if exists
+        String visitRecord = ("N/A".equals(dischargeDate) ? "N/A" : (dischargeDate + " - Discharge"))
+                + ("N/A".equals(admissionType) ? "" : (" (" + admissionType + ")"));
+        if (!visitRecord.equals("N/A")) {
+            spec.addVisitRecord(visitRecord);
+        }
+
+        double billingAmount = FastNumbers.parseDouble(get(cols, schema, CsvSchema.Column.BILLING_AMOUNT));
+        if (Double.isNaN(billingAmount)) {
+            billingAmount = 0.0;
+            r.markBad(schema, CsvSchema.Column.BILLING_AMOUNT);
+        }
+        if (billingAmount < 0) billingAmount = 0.0;
+        spec.setBillingAmount(billingAmount);
+        return r;
+    }
+
+    /**
+     * Assigns IDs to a batch of parsed rows and adds them to the system in
+     * one addPatientsBatch call. Batches must be applied in file order,
+     * since generated IDs depend on the patients added before.
+     */
+    private static void applyBatch(PatientManagementSystem system, List<ParsedRow> rows, ImportResult result,
+                                   Deduplicator dedupe) {
+        if (rows.isEmpty()) return;
+        List<PatientSpec> specs = new ArrayList<>(rows.size());
+        // Keys of the rows in specs, which the system does not know until they are added
+        LongIntHashMap pending = dedupe != null ? new LongIntHashMap(rows.size()) : null;
+        // Every ID below this was found used or was just handed out, so searches resume here
+        int nextID = 0;
+        for (ParsedRow r : rows) {
+            for (CsvSchema.Column column : CsvSchema.Column.values()) {
+                if ((r.badColumns & (1 << column.ordinal())) != 0) {
+                    result.recordBadValue(column);
+                }
+            }
+            long fingerprint = 0;
+            if (dedupe != null) {
+                fingerprint = dedupe.key.fingerprint(r.spec);
+                int knownID = pending.get(fingerprint, NO_PATIENT);
+                boolean inBatch = knownID != NO_PATIENT;
+                if (!inBatch) {
+                    knownID = system.findPatientByNaturalKey(dedupe.key, fingerprint, NO_PATIENT);
+                }
+                if (knownID != NO_PATIENT) {
+                    if (dedupe.policy == ImportOptions.DuplicatePolicy.UPSERT) {
+                        if (inBatch) {
+                            // Matched a row earlier in this batch, so add that one first
+                            addSpecs(system, specs, result);
+                            specs.clear();
+                            pending = new LongIntHashMap(rows.size());
+                        }
+                        r.spec.setPatientID(knownID);
+                        result.recordDuplicate(system.updatePatient(r.spec));
+                    } else {
+                        result.recordDuplicate(false);
+                    }
+                    continue;
+                }
+            }
+            // First unused ID from 10000+row
+            int pid = system.allocatePatientID(Math.max(AUTO_ID_BASE + r.row, nextID));
+            nextID = pid + 1;
+            r.spec.setPatientID(pid);
+            specs.add(r.spec);
+            if (dedupe != null) {
+                pending.put(fingerprint, pid);
+            }
+        }
+        addSpecs(system, specs, result);
+    }
 
-                // Billing
-                system.generateBill(pid, billingAmount);
+    // Adds the specs and gives back the IDs reserved for rows that were not created
+    private static void addSpecs(PatientManagementSystem system, List<PatientSpec> specs, ImportResult result) {
+        List<PatientSpec.Result> results = system.addPatientsBatch(specs);
+        for (int i = 0; i < results.size(); i++) {
+            boolean created = results.get(i) == PatientSpec.Result.CREATED;
+            if (!created) {
+                system.releasePatientID(specs.get(i).getPatientID());
             }
-            return created;
+            result.recordRow(created);
         }
     }
 
-    private static String get(List<String> cols, Map<String, Integer> idx, String key) {
-        if (key == null) return null;
-        Integer i = idx.get(key.toLowerCase());
-        if (i == null) return null;
-        if (i < 0 || i >= cols.size()) return null;
-        String v = cols.get(i);
-        return v != null ? v.trim() : null;
+    private static String get(IntFunction<String> cols, CsvSchema schema, CsvSchema.Column column) {
+        int i = schema.index(column);
+        return i < 0 ? null : cols.apply(i);
     }
 
     private static String defaultNA(String s) {
@@ -113,23 +354,24 @@ public class CsvImporter {
         return t.isEmpty() ? "N/A" : t;
     }
 
-    private static int safeParseInt(String s, int def) {
-        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return def; }
-    }
-    private static double safeParseDouble(String s, double def) {
-        try { return Double.parseDouble(s.trim()); } catch (Exception e) { return def; }
-    }
-
+    // Title-cases each whitespace-separated word; a single pass instead of a regex split
     private static String normalizeName(String name) {
-        String[] parts = name.trim().toLowerCase().split("\\s+");
-        List<String> out = new ArrayList<>();
-        for (String part : parts) {
-            if (part.isEmpty()) continue;
-            char first = Character.toUpperCase(part.charAt(0));
-            String rest = part.length() > 1 ? part.substring(1) : "";
-            out.add(first + rest);
+        String lower = name.trim().toLowerCase();
+        StringBuilder out = new StringBuilder(lower.length());
+        boolean wordStart = true;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                wordStart = true;
+            } else if (wordStart) {
+                if (out.length() > 0) out.append(' ');
+                out.append(Character.toUpperCase(c));
+                wordStart = false;
+            } else {
+                out.append(c);
+            }
         }
-        return String.join(" ", out);
+        return out.toString();
     }
 
     // Simple CSV parser that respects quotes
@@ -157,4 +399,218 @@ public class CsvImporter {
         res.add(cur.toString());
         return res;
     }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) return (IOException) cause;
+        if (cause instanceof UncheckedIOException) return ((UncheckedIOException) cause).getCause();
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        return new IOException(cause);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * One run of the mapped import: collects parsed rows into batches,
+     * applies each batch through the apply executor and reports progress.
+     */
+    private static class MappedImport implements MappedCsvParser.RowHandler {
+        private final PatientManagementSystem system;
+        private final ImportOptions options;
+        private final ImportJob job; // null when run synchronously
+        private final ImportResult result;
+        private final Deduplicator dedupe; // null when every row is imported
+        private final long startNanos;
+        private CsvSchema schema;
+        private List<ParsedRow> batch;
+        private int row;
+        private long totalBytes;
+        private long headerChecksum;
+        private String fileIdentity;
+        private long fileModified; // when the import started
+        private long consumed; // offset just after the last line handled
+        private int resumedRow;
+        private long resumedOffset;
+
+        MappedImport(PatientManagementSystem system, ImportOptions options, ImportJob job) {
+            this.system = system;
+            this.options = options;
+            this.job = job;
+            this.result = new ImportResult();
+            this.dedupe = options.getDuplicatePolicy() == ImportOptions.DuplicatePolicy.ALLOW
+                    ? null : new Deduplicator(options.getDuplicatePolicy(), options.getNaturalKey());
+            this.startNanos = System.nanoTime();
+            this.batch = new ArrayList<>(CHUNK_SIZE);
+        }
+
+        ImportResult run(Path path) throws IOException {
+            try (MappedCsvParser parser = new MappedCsvParser(path)) {
+                totalBytes = parser.size();
+                List<String> headers = new ArrayList<>();
+                boolean[] headerComplete = new boolean[1];
+                long dataStart = parser.parse(0, headerRow -> {
+                    for (int i = 0; i < headerRow.fieldCount(); i++) {
+                        headers.add(headerRow.getString(i));
+                    }
+                    headerComplete[0] = isComplete(headerRow);
+                    return false;
+                });
+                if (dataStart == 0) return result; // empty file
+                if (!headerComplete[0]) return result; // header still being written
+                schema = CsvSchema.compile(headers);
+                result.setMissingColumns(schema.getMissingColumns());
+
+                long start = dataStart;
+                Path checkpointFile = options.getCheckpointFile();
+                if (checkpointFile != null) {
+                    headerChecksum = ImportCheckpoint.checksum(headers);
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    fileIdentity = ImportCheckpoint.identityOf(attributes);
+                    fileModified = attributes.lastModifiedTime().toMillis();
+                    ImportCheckpoint saved = ImportCheckpoint.load(checkpointFile);
+                    if (saved != null) {
+                        if (saved.getHeaderChecksum() != headerChecksum || !saved.matches(attributes)
+                                || saved.getOffset() < dataStart || saved.getOffset() > totalBytes) {
+                            throw new IOException("Checkpoint " + checkpointFile + " does not match " + path);
+                        }
+                        // Continue with the same line numbers, and so the same generated IDs
+                        start = saved.getOffset();
+                        row = saved.getRow();
+                        resumedOffset = start;
+                        resumedRow = row;
+                        result.setResumedAtRow(row);
+                    }
+                }
+                consumed = start;
+                parser.parse(start, this);
+                if (isCancelled()) {
+                    result.setCancelled(true); // rows of the unfinished batch are dropped
+                } else {
+                    commit(consumed);
+                }
+                return result;
+            }
+        }
+
+        @Override
+        public boolean onRow(MappedCsvParser.Row dataRow) throws IOException {
+            if (isCancelled() || !isComplete(dataRow)) return false;
+            row++;
+            consumed = dataRow.getNextOffset();
+            if (!dataRow.isBlank()) {
+                batch.add(parseFields(row, dataRow::getString, schema));
+                if (batch.size() == CHUNK_SIZE) {
+                    commit(consumed);
+                }
+            }
+            return true;
+        }
+
+        // A line without terminator may still be growing when only complete lines are wanted
+        private boolean isComplete(MappedCsvParser.Row line) {
+            return !options.isCompleteLinesOnly() || line.getNextOffset() != line.getEndOffset();
+        }
+
+        private boolean isCancelled() {
+            return job != null && job.isCancelled();
+        }
+
+        private void pause() throws IOException {
+            if (options.getBatchPauseMillis() <= 0) return;
+            try {
+                Thread.sleep(options.getBatchPauseMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("CSV import interrupted", e);
+            }
+        }
+
+        // Applies the pending batch and records everything before offset as done, in one step
+        private void commit(long offset) throws IOException {
+            ImportCheckpoint checkpoint = options.getCheckpointFile() == null
+                    ? null : new ImportCheckpoint(offset, row, headerChecksum, fileIdentity, fileModified);
+            if (!batch.isEmpty()) {
+                List<ParsedRow> rows = batch;
+                batch = new ArrayList<>(CHUNK_SIZE);
+                // Saved on the apply executor right after the batch, so a batch applied after this
+                // thread gave up waiting (interrupted) is still recorded
+                CompletableFuture<Void> applied = CompletableFuture.runAsync(() -> {
+                    applyBatch(system, rows, result, dedupe);
+                    saveCheckpoint(checkpoint);
+                }, options.getApplyExecutor());
+                try {
+                    applied.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("CSV import interrupted", e);
+                } catch (ExecutionException e) {
+                    throw unwrap(e);
+                }
+                pause();
+            } else {
+                saveCheckpoint(checkpoint);
+            }
+            ImportProgress progress = new ImportProgress(row, offset, totalBytes, System.nanoTime() - startNanos,
+                    resumedRow, resumedOffset);
+            if (job != null) {
+                job.setProgress(progress);
+            }
+            if (options.getProgressListener() != null) {
+                options.getProgressListener().accept(progress);
+            }
+        }
+
+        private void saveCheckpoint(ImportCheckpoint checkpoint) {
+            if (checkpoint == null) return;
+            try {
+                checkpoint.save(options.getCheckpointFile());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * How one import treats rows matching a known patient. Known patients
+     * are looked up in the system's natural-key index, which the system
+     * keeps current, so an import does not scan the existing patients.
+     */
+    private static class Deduplicator {
+        private final ImportOptions.DuplicatePolicy policy;
+        private final NaturalKey key;
+
+        Deduplicator(ImportOptions.DuplicatePolicy policy, NaturalKey key) {
+            this.policy = policy;
+            this.key = key;
+        }
+    }
+
+    /**
+     * One data row after parsing and normalization, before it is applied.
+     */
+    private static class ParsedRow {
+        private final int row;
+        private PatientSpec spec;
+        // Bit per CsvSchema.Column ordinal for values replaced by defaults
+        private int badColumns;
+
+        ParsedRow(int row) {
+            this.row = row;
+        }
+
+        // Only counts columns the file has; absent ones are reported once as missing
+        void markBad(CsvSchema schema, CsvSchema.Column column) {
+            if (schema.index(column) >= 0) {
+                badColumns |= 1 << column.ordinal();
+            }
+        }
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Compiled header layout for CSV imports
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the header of a healthcare CSV to column indices once, so each
+ * row is read by array index instead of looking up header names.
+ */
+public class CsvSchema {
+
+    /**
+     * Columns read by the importer and their header names (matched
+     * case-insensitively, ignoring surrounding whitespace).
+     */
+    public enum Column {
+        NAME("name", false),
+        AGE("age", false),
+        GENDER("gender", false),
+        BLOOD_TYPE("blood type", false),
+        MEDICAL_CONDITION("medical condition", false),
+        DATE_OF_ADMISSION("date of admission", false),
+        DOCTOR("doctor", false),
+        HOSPITAL("hospital", false),
+        INSURANCE_PROVIDER("insurance provider", false),
+        BILLING_AMOUNT("billing amount", false),
+        ROOM_NUMBER("room number", false),
+        ADMISSION_TYPE("admission type", false),
+        DISCHARGE_DATE("discharge date", false),
+        MEDICATION("medication", false),
+        TEST_RESULTS("test results", false);
+
+        private final String header;
+        private final boolean required;
+
+        Column(String header, boolean required) {
+            this.header = header;
+            this.required = required;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+    }
+
+    private final int[] indices;
+    private final List<Column> missing;
+
+    private CsvSchema(int[] indices, List<Column> missing) {
+        this.indices = indices;
+        this.missing = missing;
+    }
+
+    /**
+     * Compiles a schema from the header fields. Optional columns that are
+     * absent read as null; see {@link #getMissingColumns()}.
+     *
+     * @throws IOException naming every missing required column
+     */
+    public static CsvSchema compile(List<String> headers) throws IOException {
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < headers.size(); i++) {
+            byName.put(headers.get(i).trim().toLowerCase(), i); // last duplicate wins
+        }
+
+        Column[] columns = Column.values();
+        int[] indices = new int[columns.length];
+        Arrays.fill(indices, -1);
+        List<Column> missing = new ArrayList<>();
+        List<String> missingRequired = new ArrayList<>();
+        for (Column column : columns) {
+            Integer i = byName.get(column.getHeader());
+            if (i != null) {
+                indices[column.ordinal()] = i;
+            } else {
+                missing.add(column);
+                if (column.isRequired()) missingRequired.add("\"" + column.getHeader() + "\"");
+            }
+        }
+        if (!missingRequired.isEmpty()) {
+            throw new IOException("CSV header is missing required column(s): " + String.join(", ", missingRequired));
+        }
+        return new CsvSchema(indices, Collections.unmodifiableList(missing));
+    }
+
+    /**
+     * Gets the field index of a column, or -1 if the file does not have it.
+     */
+    public int index(Column column) {
+        return indices[column.ordinal()];
+    }
+
+    /**
+     * Gets the optional columns the file does not have.
+     */
+    public List<Column> getMissingColumns() {
+        return missing;
+    }
+}
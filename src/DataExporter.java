@@ -0,0 +1,578 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Streaming CSV / JSON Lines export of system data
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Exports patients, appointments, billing records (with payment history)
+ * and visit plans as CSV or JSON Lines, for use by other tools.
+ *
+ * Records are read and formatted in slices of 256 on a reader executor
+ * (by default the calling thread), then encoded as UTF-8 into a 64 KB
+ * buffer and written to a FileChannel on the calling thread. A UI can
+ * export from a background thread while records are read on its own
+ * thread, between edits. Patients are fetched by ID one at a time, so a
+ * paged or tiered store does not load all of them at once, and without
+ * entering its patient cache, so an export does not push out the working
+ * set or write back the cold patients it reads.
+ *
+ * In CSV, list fields (medical history, visit records, payments) are
+ * joined with '|', with any '|' or '\' inside an element escaped by a
+ * backslash, and payments are written as date:amount. Missing values are
+ * empty in CSV and null in JSON. Amounts are written in full, without
+ * rounding; NaN and infinite amounts count as missing. Characters that
+ * cannot be encoded, such as unpaired surrogates, are written as '?'.
+ */
+public class DataExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Records read per trip to the reader executor
+    private static final int SLICE_SIZE = 256;
+
+    /**
+     * Output format of an export.
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES
+    }
+
+    private static final String[] PATIENT_COLUMNS = {
+        "patient_id", "name", "age", "contact_info", "gender", "blood_type", "diagnosis", "doctor",
+        "hospital", "insurance", "room_number", "admission_type", "admission_date", "discharge_date",
+        "medication", "test_results", "medical_history", "visit_records"
+    };
+    private static final String[] APPOINTMENT_COLUMNS = {
+        "appointment_id", "patient_id", "date", "time", "status"
+    };
+    private static final String[] BILLING_COLUMNS = {
+        "patient_id", "amount", "status", "payments"
+    };
+    private static final String[] VISIT_PLAN_COLUMNS = {
+        "plan_id", "patient_id", "date", "purpose", "doctor", "status", "diagnosis", "treatment_plan",
+        "doctor_note"
+    };
+
+    private DataExporter() {
+    }
+
+    /**
+     * Exports all patients in ID order.
+     *
+     * @return the number of records written
+     */
+    public static long exportPatients(PatientManagementSystem system, Path file, Format format) throws IOException {
+        return exportPatients(system, file, format, Runnable::run);
+    }
+
+    /**
+     * Exports all patients in ID order, reading them on the given executor.
+     *
+     * @return the number of records written
+     */
+    public static long exportPatients(PatientManagementSystem system, Path file, Format format, Executor reader)
+            throws IOException {
+        return export(file, format, PATIENT_COLUMNS, reader, new PatientRows(system));
+    }
+
+    /**
+     * Exports all appointments in the order they were scheduled.
+     *
+     * @return the number of records written
+     */
+    public static long exportAppointments(PatientManagementSystem system, Path file, Format format)
+            throws IOException {
+        return exportAppointments(system, file, format, Runnable::run);
+    }
+
+    /**
+     * Exports all appointments in the order they were scheduled, reading
+     * them on the given executor.
+     *
+     * @return the number of records written
+     */
+    public static long exportAppointments(PatientManagementSystem system, Path file, Format format,
+                                          Executor reader) throws IOException {
+        return export(file, format, APPOINTMENT_COLUMNS, reader,
+                new ListRows<Appointment>(system::getAllAppointments) {
+                    @Override
+                    void write(RecordWriter out, Appointment a) {
+                        out.field(a.getAppointmentID());
+                        out.field(a.getPatient() != null ? Integer.valueOf(a.getPatient().getPatientID()) : null);
+                        out.field(a.getDate());
+                        out.field(a.getTime());
+                        out.field(a.getStatus());
+                    }
+                });
+    }
+
+    /**
+     * Exports all billing records with their payment history.
+     *
+     * @return the number of records written
+     */
+    public static long exportBilling(PatientManagementSystem system, Path file, Format format) throws IOException {
+        return exportBilling(system, file, format, Runnable::run);
+    }
+
+    /**
+     * Exports all billing records with their payment history, reading them
+     * on the given executor.
+     *
+     * @return the number of records written
+     */
+    public static long exportBilling(PatientManagementSystem system, Path file, Format format, Executor reader)
+            throws IOException {
+        return export(file, format, BILLING_COLUMNS, reader,
+                new ListRows<Billing>(system::getAllBillingRecords) {
+                    @Override
+                    void write(RecordWriter out, Billing b) {
+                        out.field(b.getPatientID());
+                        out.amount(b.getBillingAmount());
+                        out.field(status(b.getBillingAmount()));
+                        out.payments(b.getPaymentHistory());
+                    }
+                });
+    }
+
+    /**
+     * Exports all visit plans in the order they were created.
+     *
+     * @return the number of records written
+     */
+    public static long exportVisitPlans(PatientManagementSystem system, Path file, Format format) throws IOException {
+        return exportVisitPlans(system, file, format, Runnable::run);
+    }
+
+    /**
+     * Exports all visit plans in the order they were created, reading them
+     * on the given executor.
+     *
+     * @return the number of records written
+     */
+    public static long exportVisitPlans(PatientManagementSystem system, Path file, Format format,
+                                        Executor reader) throws IOException {
+        return export(file, format, VISIT_PLAN_COLUMNS, reader,
+                new ListRows<VisitPlan>(system::getAllVisitPlans) {
+                    @Override
+                    void write(RecordWriter out, VisitPlan vp) {
+                        out.field(vp.getPlanID());
+                        out.field(vp.getPatient() != null ? Integer.valueOf(vp.getPatient().getPatientID()) : null);
+                        out.field(vp.getDate());
+                        out.field(vp.getPurpose());
+                        out.field(vp.getDoctor());
+                        out.field(vp.getStatus());
+                        out.field(vp.getDiagnosis());
+                        out.field(vp.getTreatmentPlan());
+                        out.field(vp.getDoctorNote());
+                    }
+                });
+    }
+
+    // Formats slices of records on the reader and writes each slice out on this thread
+    private static long export(Path file, Format format, String[] columns, Executor reader, Rows rows)
+            throws IOException {
+        try (RecordWriter out = new RecordWriter(file, format, columns)) {
+            boolean more = true;
+            while (more) {
+                CompletableFuture<Boolean> slice = CompletableFuture.supplyAsync(() -> {
+                    for (int i = 0; i < SLICE_SIZE; i++) {
+                        if (!rows.next(out)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }, reader);
+                try {
+                    more = slice.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Export interrupted", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw new IOException(cause);
+                }
+                out.writeFormatted();
+            }
+            return out.count;
+        }
+    }
+
+    // Status word of Billing.getPaymentStatus(), without the formatted amount
+    private static String status(double balance) {
+        if (Double.isNaN(balance)) {
+            return null;
+        }
+        if (balance == 0) {
+            return "Paid";
+        }
+        return balance > 0 ? "Pending" : "Overpaid";
+    }
+
+    /**
+     * Source of records, read one at a time on the reader executor.
+     */
+    private interface Rows {
+        /**
+         * Formats the next record into out.
+         *
+         * @return false when there are no more records
+         */
+        boolean next(RecordWriter out);
+    }
+
+    // Lists the patient IDs first, then looks up and writes one patient at a time
+    private static class PatientRows implements Rows, IntConsumer {
+        private final PatientManagementSystem system;
+        private int[] ids;
+        private int size;
+        private int next;
+
+        PatientRows(PatientManagementSystem system) {
+            this.system = system;
+        }
+
+        @Override
+        public void accept(int patientID) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = patientID;
+        }
+
+        @Override
+        public boolean next(RecordWriter out) {
+            if (ids == null) {
+                ids = new int[256];
+                system.forEachPatientID(this);
+            }
+            while (next < size) {
+                Patient p = system.peekPatient(ids[next++]);
+                if (p != null) { // deleted since the IDs were listed
+                    write(out, p);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void write(RecordWriter out, Patient p) {
+            ClinicalAttributes c = p.readClinicalAttributes();
+            out.begin();
+            out.field(p.getPatientID());
+            out.field(p.getName());
+            out.field(p.getAge());
+            out.field(p.getContactInfo());
+            out.field(c.getGender());
+            out.field(c.getBloodType());
+            out.field(c.getDiagnosis());
+            out.field(c.getDoctor());
+            out.field(c.getHospital());
+            out.field(c.getInsurance());
+            out.field(c.getRoomNumber());
+            out.field(c.getAdmissionType());
+            out.field(c.getAdmissionDate());
+            out.field(c.getDischargeDate());
+            out.field(c.getMedication());
+            out.field(c.getTestResults());
+            out.list(p.readMedicalHistory());
+            out.list(p.readVisitRecords());
+            out.end();
+        }
+    }
+
+    // Walks a list by index, so records added between slices do not break the walk
+    private abstract static class ListRows<T> implements Rows {
+        private final Supplier<List<T>> source;
+        private List<T> list;
+        private int next;
+
+        ListRows(Supplier<List<T>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean next(RecordWriter out) {
+            if (list == null) {
+                list = source.get();
+            }
+            if (next >= list.size()) {
+                return false;
+            }
+            out.begin();
+            write(out, list.get(next++));
+            out.end();
+            return true;
+        }
+
+        abstract void write(RecordWriter out, T record);
+    }
+
+    /**
+     * Formats records into a reused buffer and writes them through a
+     * buffered channel. Fields must be given in column order.
+     */
+    private static class RecordWriter implements Closeable {
+        private final FileChannel channel;
+        private final Format format;
+        private final String[] columns;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final StringBuilder record = new StringBuilder(SLICE_SIZE * 256);
+        private char[] chars = new char[256];
+        private int column;
+        private long count;
+
+        RecordWriter(Path file, Format format, String[] columns) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.format = format;
+            this.columns = columns;
+            if (format == Format.CSV) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) record.append(',');
+                    record.append(columns[i]);
+                }
+                record.append('\n');
+                writeFormatted();
+            }
+        }
+
+        void begin() {
+            column = 0;
+            if (format == Format.JSON_LINES) {
+                record.append('{');
+            }
+        }
+
+        void end() {
+            record.append(format == Format.JSON_LINES ? "}\n" : "\n");
+            count++;
+        }
+
+        void field(String value) {
+            name();
+            if (format == Format.CSV) {
+                if (value != null) csv(value);
+            } else if (value == null) {
+                record.append("null");
+            } else {
+                json(value);
+            }
+        }
+
+        void field(Integer value) {
+            name();
+            if (value != null) {
+                record.append(value.intValue());
+            } else if (format == Format.JSON_LINES) {
+                record.append("null");
+            }
+        }
+
+        void field(int value) {
+            name();
+            record.append(value);
+        }
+
+        void amount(double value) {
+            name();
+            String text = plain(value);
+            if (text != null) {
+                record.append(text);
+            } else if (format == Format.JSON_LINES) {
+                record.append("null");
+            }
+        }
+
+        void list(List<String> values) {
+            name();
+            if (format == Format.CSV) {
+                StringBuilder joined = new StringBuilder();
+                for (String v : values) {
+                    if (joined.length() > 0) joined.append('|');
+                    element(joined, v);
+                }
+                csv(joined.toString());
+                return;
+            }
+            record.append('[');
+            boolean first = true;
+            for (String v : values) {
+                if (!first) record.append(',');
+                if (v != null) json(v); else record.append("null");
+                first = false;
+            }
+            record.append(']');
+        }
+
+        void payments(List<Billing.Payment> payments) {
+            name();
+            if (format == Format.CSV) {
+                StringBuilder joined = new StringBuilder();
+                for (Billing.Payment p : payments) {
+                    if (joined.length() > 0) joined.append('|');
+                    element(joined, p.getDate());
+                    joined.append(':');
+                    String amount = plain(p.getAmount());
+                    if (amount != null) joined.append(amount);
+                }
+                csv(joined.toString());
+                return;
+            }
+            record.append('[');
+            boolean first = true;
+            for (Billing.Payment p : payments) {
+                if (!first) record.append(',');
+                record.append("{\"date\":");
+                if (p.getDate() != null) json(p.getDate()); else record.append("null");
+                String amount = plain(p.getAmount());
+                record.append(",\"amount\":").append(amount != null ? amount : "null").append('}');
+                first = false;
+            }
+            record.append(']');
+        }
+
+        // Writes the separator and, for JSON, the key of the next field
+        private void name() {
+            if (format == Format.CSV) {
+                if (column > 0) record.append(',');
+            } else {
+                if (column > 0) record.append(',');
+                json(columns[column]);
+                record.append(':');
+            }
+            column++;
+        }
+
+        private void csv(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                record.append(value);
+                return;
+            }
+            record.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') record.append('"');
+                record.append(c);
+            }
+            record.append('"');
+        }
+
+        private void json(String value) {
+            record.append('"');
+            int clean = 0;
+            while (clean < value.length() && value.charAt(clean) >= 0x20 && value.charAt(clean) != '"'
+                    && value.charAt(clean) != '\\') {
+                clean++;
+            }
+            record.append(value, 0, clean);
+            for (int i = clean; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': record.append("\\\""); break;
+                    case '\\': record.append("\\\\"); break;
+                    case '\n': record.append("\\n"); break;
+                    case '\r': record.append("\\r"); break;
+                    case '\t': record.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            record.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            record.append(c);
+                        }
+                }
+            }
+            record.append('"');
+        }
+
+        // Appends a list element with its separator and escape characters escaped; null is empty
+        private static void element(StringBuilder joined, String value) {
+            if (value == null) return;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '|' || c == '\\') joined.append('\\');
+                joined.append(c);
+            }
+        }
+
+        // Full precision without exponent notation, e.g. 12345678.9 rather than 1.23456789E7;
+        // null for NaN and infinities, which have no number form
+        private static String plain(double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return null;
+            }
+            return BigDecimal.valueOf(value).toPlainString();
+        }
+
+        // Encodes the records formatted so far into the buffer, writing the buffer out whenever it fills
+        void writeFormatted() throws IOException {
+            // Encoding from an array is much faster than from the StringBuilder itself
+            int length = record.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            record.getChars(0, length, chars, 0);
+            CharBuffer in = CharBuffer.wrap(chars, 0, length);
+            while (true) {
+                CoderResult result = encoder.encode(in, buffer, true);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            encoder.reset();
+            record.setLength(0);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Per-day totals in a Fenwick (binary indexed) tree
+ */
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sums of a whole-number quantity (cents, counts) per calendar day. The days
+ * are positions in a Fenwick tree keyed by epoch day, so adding to a day
+ * and summing any range of days both take O(log n) for n days covered.
+ *
+ * The tree covers only the days seen so far. When a day falls outside that
+ * range, the tree is rebuilt about twice as large in O(n). It never grows
+ * past 1970 to 2099, so one mistyped date such as 0001-01-01 cannot make it
+ * millions of days long; days outside that window are kept in a sorted map
+ * instead and summed one by one.
+ */
+public class DayHistogram {
+    /** First day the tree can cover. */
+    public static final LocalDate DENSE_FIRST_DATE = LocalDate.of(1970, 1, 1);
+    /** Last day the tree can cover. */
+    public static final LocalDate DENSE_LAST_DATE = LocalDate.of(2099, 12, 31);
+
+    private static final int INITIAL_DAYS = 1024;
+    private static final long DENSE_FIRST_DAY = DENSE_FIRST_DATE.toEpochDay();
+    private static final long DENSE_LAST_DAY = DENSE_LAST_DATE.toEpochDay();
+
+    private long firstDay;  // epoch day stored at position 1
+    private long[] tree;    // 1-based; null until the first add
+    private final TreeMap<Long, Long> outliers; // days outside the dense window
+    private long total;
+
+    public DayHistogram() {
+        this.outliers = new TreeMap<>();
+    }
+
+    /**
+     * Adds a value (which may be negative) to the given day.
+     */
+    public synchronized void add(LocalDate day, long value) {
+        add(day.toEpochDay(), value);
+    }
+
+    private void add(long epochDay, long value) {
+        if (epochDay < DENSE_FIRST_DAY || epochDay > DENSE_LAST_DAY) {
+            outliers.merge(epochDay, value, Long::sum);
+            total += value;
+            return;
+        }
+        ensureCovers(epochDay);
+        for (int i = (int) (epochDay - firstDay) + 1; i < tree.length; i += i & -i) {
+            tree[i] += value;
+        }
+        total += value;
+    }
+
+    /**
+     * Gets the sum over the days from and to, both included.
+     */
+    public synchronized long sum(LocalDate from, LocalDate to) {
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+        if (end < start) {
+            return 0;
+        }
+        long sum = tree == null ? 0 : prefix(end) - prefix(start - 1);
+        if (!outliers.isEmpty()) {
+            for (long value : outliers.subMap(start, true, end, true).values()) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the value of a single day.
+     */
+    public synchronized long get(LocalDate day) {
+        return sum(day, day);
+    }
+
+    /**
+     * Gets the sum over all days.
+     */
+    public synchronized long total() {
+        return total;
+    }
+
+    /**
+     * Gets the days outside the dense window with a non-zero value, in order.
+     */
+    public synchronized List<LocalDate> getOutlierDays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (Map.Entry<Long, Long> day : outliers.entrySet()) {
+            if (day.getValue() != 0) {
+                days.add(LocalDate.ofEpochDay(day.getKey()));
+            }
+        }
+        return days;
+    }
+
+    // Number of days the tree covers, for tests
+    synchronized int coveredDays() {
+        return tree == null ? 0 : tree.length - 1;
+    }
+
+    // Sum of all days in the tree up to and including epochDay
+    private long prefix(long epochDay) {
+        if (epochDay < firstDay) {
+            return 0;
+        }
+        long pos = Math.min(epochDay - firstDay + 1, tree.length - 1);
+        long sum = 0;
+        for (int i = (int) pos; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void ensureCovers(long epochDay) {
+        if (tree == null) {
+            firstDay = Math.min(Math.max(epochDay - INITIAL_DAYS / 2, DENSE_FIRST_DAY),
+                    DENSE_LAST_DAY - INITIAL_DAYS + 1);
+            tree = new long[INITIAL_DAYS + 1];
+            return;
+        }
+        long lastDay = firstDay + tree.length - 2;
+        if (epochDay >= firstDay && epochDay <= lastDay) {
+            return;
+        }
+        // Grow towards the new day, at least doubling the covered range within the window
+        int days = tree.length - 1;
+        long newFirst = firstDay;
+        long newLast = lastDay;
+        while (epochDay < newFirst || epochDay > newLast) {
+            if (epochDay < newFirst) {
+                newFirst = Math.max(newFirst - days, DENSE_FIRST_DAY);
+            } else {
+                newLast = Math.min(newLast + days, DENSE_LAST_DAY);
+            }
+            days = (int) (newLast - newFirst + 1);
+        }
+        long[] values = toValues();
+        long[] grown = new long[days + 1];
+        System.arraycopy(values, 1, grown, (int) (firstDay - newFirst) + 1, values.length - 1);
+        build(grown);
+        firstDay = newFirst;
+        tree = grown;
+    }
+
+    // Turns the tree back into per-day values, undoing build() in O(n)
+    private long[] toValues() {
+        long[] values = tree.clone();
+        for (int i = values.length - 1; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent < values.length) {
+                values[parent] -= values[i];
+            }
+        }
+        return values;
+    }
+
+    // Turns per-day values (1-based) into a Fenwick tree in place in O(n)
+    private static void build(long[] values) {
+        for (int i = 1; i < values.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < values.length) {
+                values[parent] += values[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Continuous CSV ingestion from a watched directory
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a directory and imports every {@code .csv} file that appears or
+ * grows in it. Each file has its own checkpoint in a separate directory, so
+ * only lines added since the last import are read, and a line still being
+ * written is left for the next round. A checkpoint left by an earlier file
+ * of the same name (another file, or one now shorter than the checkpoint)
+ * is discarded and the new file is imported from its start.
+ *
+ * Files are imported one at a time on a single background thread, and
+ * change events for a file that is already queued are merged. Together
+ * with the import options' apply executor and batch pause, this bounds how
+ * much work ingestion hands to the rest of the application at once.
+ */
+public class DirectoryIngestor implements Closeable {
+
+    /**
+     * Receives the outcome of each import, on the ingestion thread.
+     */
+    public interface Listener {
+        void onImported(Path file, ImportResult result);
+
+        void onFailed(Path file, IOException error);
+    }
+
+    // How long changes settle before queued files are imported
+    private static final long SETTLE_MILLIS = 500;
+    // Longest wait for the directory to settle under a steady stream of changes
+    private static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final PatientManagementSystem system;
+    private final Path directory;
+    private final Path checkpointDirectory;
+    private final ImportOptions options;
+    private final Listener listener;
+    private final Set<Path> pending;
+    private WatchService watcher;
+    private Thread worker;
+    private volatile boolean running;
+    private volatile ImportJob current; // the import in progress, if any
+
+    /**
+     * @param checkpointDirectory where per-file checkpoints are kept; must
+     *                            not be the watched directory
+     * @param options             settings for each import; the checkpoint
+     *                            file and complete-lines-only are set per file
+     */
+    public DirectoryIngestor(PatientManagementSystem system, Path directory, Path checkpointDirectory,
+                             ImportOptions options, Listener listener) {
+        this.system = system;
+        this.directory = directory;
+        this.checkpointDirectory = checkpointDirectory;
+        this.options = options;
+        this.listener = listener;
+        this.pending = new LinkedHashSet<>();
+    }
+
+    /**
+     * Starts watching, and queues the CSV files already in the directory.
+     */
+    public synchronized void start() throws IOException {
+        if (running) return;
+        if (directory.toAbsolutePath().normalize().equals(checkpointDirectory.toAbsolutePath().normalize())) {
+            throw new IOException("Checkpoints must be kept outside the watched directory");
+        }
+        Files.createDirectories(checkpointDirectory);
+        watcher = directory.getFileSystem().newWatchService();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        queueExistingFiles();
+        running = true;
+        worker = new Thread(this::watchLoop, "csv-watch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops watching. An import in progress is cancelled and stops at its
+     * next batch; its checkpoint keeps what was applied.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread stopping;
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            stopping = worker;
+            watcher.close();
+        }
+        ImportJob job = current;
+        if (job != null) {
+            job.cancel();
+        }
+        stopping.interrupt();
+        try {
+            stopping.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            long lastIngest = System.nanoTime();
+            while (running) {
+                WatchKey key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collect(key);
+                }
+                if (key == null || System.nanoTime() - lastIngest > MAX_DELAY_NANOS) {
+                    Path next = nextPending();
+                    if (next != null) {
+                        ingest(next);
+                    }
+                    lastIngest = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private void collect(WatchKey key) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so look at every file again
+                try {
+                    queueExistingFiles();
+                } catch (IOException e) {
+                    listener.onFailed(directory, e);
+                }
+            } else {
+                Path file = directory.resolve((Path) event.context());
+                if (isCsv(file)) {
+                    synchronized (pending) {
+                        pending.add(file);
+                    }
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private Path nextPending() {
+        synchronized (pending) {
+            Iterator<Path> it = pending.iterator();
+            if (!it.hasNext()) return null;
+            Path next = it.next();
+            it.remove();
+            return next;
+        }
+    }
+
+    private void ingest(Path file) throws InterruptedException {
+        if (!Files.isRegularFile(file)) return; // deleted or renamed meanwhile
+        ImportOptions fileOptions = new ImportOptions(options);
+        Path checkpointFile = ImportCheckpoint.defaultFileFor(checkpointDirectory.resolve(file.getFileName()));
+        fileOptions.setCheckpointFile(checkpointFile);
+        fileOptions.setCompleteLinesOnly(true);
+        ImportJob job = new ImportJob();
+        current = job;
+        try {
+            if (!running) {
+                return; // closed before close() could see the job
+            }
+            discardStaleCheckpoint(file, checkpointFile);
+            ImportResult result = CsvImporter.importHealthcareCsv(system, file.toString(), fileOptions, job);
+            if (result.getRows() > 0) {
+                listener.onImported(file, result);
+            }
+        } catch (IOException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            listener.onFailed(file, e);
+        } finally {
+            current = null;
+        }
+    }
+
+    // A file dropped again under the same name is a new file, imported from its start
+    private static void discardStaleCheckpoint(Path file, Path checkpointFile) throws IOException {
+        ImportCheckpoint saved = ImportCheckpoint.load(checkpointFile);
+        if (saved != null && !saved.matches(Files.readAttributes(file, BasicFileAttributes.class))) {
+            Files.delete(checkpointFile);
+        }
+    }
+
+    private void queueExistingFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")) {
+            synchronized (pending) {
+                for (Path file : files) {
+                    pending.add(file);
+                }
+            }
+        }
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv");
+    }
+}
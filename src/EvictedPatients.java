@@ -0,0 +1,101 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Weak references to patients evicted from a store's memory
+ */
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers patients that a store pushed out of memory, as long as
+ * something else (an Appointment, a VisitPlan, the waiting list) still
+ * holds them. A store checks here before decoding a patient again, so
+ * there is never a second copy of a patient that is still referenced:
+ * changes made through any reference are seen by all of them.
+ *
+ * Entries of patients nothing else holds are dropped by the garbage
+ * collector and purged on the next call.
+ */
+public class EvictedPatients {
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final ReferenceQueue<Patient> collected = new ReferenceQueue<>();
+
+    /**
+     * Remembers an evicted patient, with the checksum of its stored record.
+     */
+    public void add(Patient patient, long checksum) {
+        expunge();
+        entries.put(patient.getPatientID(), new Entry(patient, checksum, collected));
+    }
+
+    /**
+     * Removes and returns the entry for a patient that is still in use
+     * elsewhere, or null.
+     */
+    public Entry take(int patientID) {
+        expunge();
+        Entry entry = entries.remove(patientID);
+        return entry != null && entry.get() != null ? entry : null;
+    }
+
+    /**
+     * Gets a patient that is still in use elsewhere, without removing it.
+     */
+    public Patient peek(int patientID) {
+        Entry entry = entries.get(patientID);
+        return entry != null ? entry.get() : null;
+    }
+
+    public void remove(int patientID) {
+        entries.remove(patientID);
+    }
+
+    /**
+     * Gets the entries whose patients are still in use.
+     */
+    public List<Entry> alive() {
+        expunge();
+        List<Entry> alive = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.get() != null) {
+                alive.add(entry);
+            }
+        }
+        return alive;
+    }
+
+    private void expunge() {
+        Entry cleared;
+        while ((cleared = (Entry) collected.poll()) != null) {
+            entries.remove(cleared.patientID, cleared);
+        }
+    }
+
+    /**
+     * A patient that was evicted and the checksum of its record at that time.
+     */
+    public static class Entry extends WeakReference<Patient> {
+        private final int patientID;
+        private long checksum;
+
+        Entry(Patient patient, long checksum, ReferenceQueue<Patient> queue) {
+            super(patient, queue);
+            this.patientID = patient.getPatientID();
+            this.checksum = checksum;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+
+        public void setChecksum(long checksum) {
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Non-throwing number parsing for imported data
+ */
+
+import java.math.BigInteger;
+
+/**
+ * Parses ints and decimal amounts without exceptions. Invalid input returns
+ * a sentinel instead of throwing, so dirty cells such as "", "N/A" or "abc"
+ * cost no more than valid ones.
+ *
+ * Decimals with up to 19 significant digits, which covers the dataset's
+ * 16-17 digit billing amounts, are converted without allocation: exactly
+ * when the digits and power of ten fit a double, otherwise with the
+ * Eisel-Lemire algorithm on a 128-bit table of powers of five. Longer
+ * mantissas, subnormal results and the rare case that algorithm cannot
+ * round fall back to Double.parseDouble. Results are always correctly
+ * rounded.
+ *
+ * Surrounding whitespace is ignored. Ints accept an optional sign and
+ * digits; decimals additionally accept a fraction and an exponent
+ * ("1234.50", ".5", "1e3"). Other forms such as "NaN" or hex are invalid,
+ * and so are numbers too large for a double ("1e999").
+ */
+public final class FastNumbers {
+    /** Returned by {@link #parseInt(CharSequence)} for invalid input. */
+    public static final int INVALID_INT = Integer.MIN_VALUE;
+
+    // Powers of ten that are exact as doubles
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Mantissas up to 2^53 convert to double exactly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // Significant digits that always fit an unsigned long
+    private static final int MAX_DIGITS = 19;
+
+    // 5^q for q in [MIN_POW10, MAX_POW10], normalized to 128 bits (high and low halves)
+    private static final int MIN_POW10 = -342;
+    private static final int MAX_POW10 = 308;
+    private static final long[] POW5_HI = new long[MAX_POW10 - MIN_POW10 + 1];
+    private static final long[] POW5_LO = new long[MAX_POW10 - MIN_POW10 + 1];
+
+    static {
+        BigInteger five = BigInteger.valueOf(5);
+        for (int q = MIN_POW10; q <= MAX_POW10; q++) {
+            BigInteger c;
+            if (q >= 0) {
+                // Truncated to the top 128 bits
+                BigInteger power = five.pow(q);
+                int shift = 128 - power.bitLength();
+                c = shift >= 0 ? power.shiftLeft(shift) : power.shiftRight(-shift);
+            } else {
+                // Reciprocal rounded up, then truncated to 128 bits
+                BigInteger power = five.pow(-q);
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                c = c.shiftRight(Math.max(0, c.bitLength() - 128));
+            }
+            POW5_HI[q - MIN_POW10] = c.shiftRight(64).longValue();
+            POW5_LO[q - MIN_POW10] = c.longValue();
+        }
+    }
+
+    private FastNumbers() {
+    }
+
+    /**
+     * Parses a decimal int, or returns {@link #INVALID_INT} if the text is
+     * null, blank, malformed or out of range.
+     */
+    public static int parseInt(CharSequence s) {
+        if (s == null) return INVALID_INT;
+        int i = skipLeading(s);
+        int end = skipTrailing(s, i);
+        if (i == end) return INVALID_INT;
+
+        boolean negative = false;
+        char c = s.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            if (++i == end) return INVALID_INT;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) return INVALID_INT;
+            value = value * 10 + d;
+            if (value > 1L + Integer.MAX_VALUE) return INVALID_INT;
+        }
+        value = negative ? -value : value;
+        // MIN_VALUE itself is the sentinel, so it is treated as out of range
+        return value > Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : INVALID_INT;
+    }
+
+    /**
+     * Parses a decimal number, or returns NaN if the text is null, blank,
+     * malformed or too large for a double. Use {@code Double.isNaN} to
+     * check the result.
+     */
+    public static double parseDouble(CharSequence s) {
+        if (s == null) return Double.NaN;
+        int start = skipLeading(s);
+        int end = skipTrailing(s, start);
+        int i = start;
+        if (i == end) return Double.NaN;
+
+        boolean negative = false;
+        char c = s.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+        long mantissa = 0; // unsigned, the first MAX_DIGITS significant digits
+        int digits = 0;
+        int significant = 0; // digits from the first non-zero one
+        int exponent = 0; // power of ten applied to the mantissa
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (significant > 0 || c != '0') {
+                    significant++;
+                }
+                if (significant <= MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (seenPoint) exponent--;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) return Double.NaN;
+        if (i < end) {
+            // Only an exponent may follow the digits
+            if (!isExponent(s, i, end)) return Double.NaN;
+            exponent += parseExponent(s, i + 1, end);
+        }
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (significant > MAX_DIGITS) {
+            value = slowPath(s, start, end);
+        } else if (Long.compareUnsigned(mantissa, MAX_EXACT_MANTISSA) <= 0
+                && exponent >= -22 && exponent <= 22) {
+            // Both operands are exact, so one rounding gives the nearest double
+            value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+        } else {
+            value = eiselLemire(mantissa, exponent);
+            if (Double.isNaN(value)) {
+                value = slowPath(s, start, end);
+            }
+        }
+        if (Double.isInfinite(value)) return Double.NaN;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts mantissa * 10^exponent to the nearest double, see
+     * Lemire, "Number Parsing at a Gigabyte per Second" (2021). Returns NaN
+     * when the result is subnormal or infinite, or when 128 bits of the
+     * power do not decide the rounding.
+     */
+    private static double eiselLemire(long mantissa, int exponent) {
+        if (exponent < MIN_POW10 || exponent > MAX_POW10) return Double.NaN;
+        int index = exponent - MIN_POW10;
+        int clz = Long.numberOfLeadingZeros(mantissa);
+        long man = mantissa << clz;
+        // floor(log2(10) * exponent) + 64 + bias - clz
+        long exp2 = ((217706L * exponent) >> 16) + 64 + 1023 - clz;
+
+        long hi = unsignedMultiplyHigh(man, POW5_HI[index]);
+        long lo = man * POW5_HI[index];
+        if ((hi & 0x1FF) == 0x1FF && Long.compareUnsigned(lo + man, man) < 0) {
+            // The truncated product may be one short; add the low half of the power
+            long yHi = unsignedMultiplyHigh(man, POW5_LO[index]);
+            long yLo = man * POW5_LO[index];
+            long mergedHi = hi;
+            long mergedLo = lo + yHi;
+            if (Long.compareUnsigned(mergedLo, lo) < 0) mergedHi++;
+            if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + man, man) < 0) {
+                return Double.NaN;
+            }
+            hi = mergedHi;
+            lo = mergedLo;
+        }
+        // Keep 54 bits: the 53 of the result and one to round with
+        long msb = hi >>> 63;
+        long bits = hi >>> (msb + 9);
+        exp2 -= 1 ^ msb;
+        if (lo == 0 && (hi & 0x1FF) == 0 && (bits & 3) == 1) {
+            return Double.NaN; // exactly halfway as far as 128 bits can tell
+        }
+        bits += bits & 1;
+        bits >>>= 1;
+        if ((bits >>> 53) > 0) {
+            bits >>>= 1;
+            exp2++;
+        }
+        if (exp2 <= 0 || exp2 >= 0x7FF) return Double.NaN;
+        return Double.longBitsToDouble(exp2 << 52 | (bits & 0x000FFFFFFFFFFFFFL));
+    }
+
+    // Rare inputs the fast paths leave; validated already, so this cannot throw
+    private static double slowPath(CharSequence s, int start, int end) {
+        return Math.abs(Double.parseDouble(s.subSequence(start, end).toString()));
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    // Reads the digits of a validated exponent at s[i, end), capped far beyond any double
+    private static int parseExponent(CharSequence s, int i, int end) {
+        boolean negative = false;
+        if (s.charAt(i) == '+' || s.charAt(i) == '-') {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            value = Math.min(value * 10 + (s.charAt(i) - '0'), 100_000);
+        }
+        return negative ? -value : value;
+    }
+
+    // Checks for [eE][+-]?digits+ filling s[i, end)
+    private static boolean isExponent(CharSequence s, int i, int end) {
+        char c = s.charAt(i);
+        if (c != 'e' && c != 'E') return false;
+        if (++i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+        if (i == end) return false;
+        for (; i < end; i++) {
+            c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static int skipLeading(CharSequence s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') i++;
+        return i;
+    }
+
+    private static int skipTrailing(CharSequence s, int start) {
+        int end = s.length();
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        return end;
+    }
+}
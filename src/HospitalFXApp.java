@@ -29,6 +29,10 @@ import javafx.stage.Stage;
 import javafx.animation.FadeTransition;
 import javafx.animation.ScaleTransition;
 import javafx.util.Duration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -41,6 +45,7 @@ import java.util.stream.Collectors;
 public class HospitalFXApp extends Application {
     private PatientManagementSystem system;
     private Stage primaryStage;
+    private DirectoryIngestor folderIngestor; // null unless a folder is being watched
     
     // UI Components
     private BorderPane root;
@@ -480,6 +485,7 @@ public class HospitalFXApp extends Application {
         Label idLabel = createFormLabel("Patient ID");
         patientIDField = createFormTextField();
         patientIDField.setPromptText("Enter unique patient ID");
+        prefillPatientID();
         formGrid.add(idLabel, 0, 0);
         formGrid.add(patientIDField, 1, 0);
         
@@ -669,20 +675,13 @@ public class HospitalFXApp extends Application {
             
             // Add patient
             if (system.addPatient(patientID, name, age, contact)) {
-                // Add diagnosis to medical history if provided
-                if (diagnosisCombo.getValue() != null && !diagnosisCombo.getValue().isEmpty()) {
-                    Patient patient = system.findPatient(patientID);
-                    if (patient != null) {
-                        patient.getMedicalHistory().add("Diagnosis: " + diagnosisCombo.getValue());
-                    }
-                }
-                
-                // Add medical history if provided
-                if (medicalHistoryArea.getText() != null && !medicalHistoryArea.getText().trim().isEmpty()) {
-                    Patient patient = system.findPatient(patientID);
-                    if (patient != null) {
-                        patient.getMedicalHistory().add(medicalHistoryArea.getText().trim());
-                    }
+                // Record diagnosis and medical history if provided
+                String diagnosis = diagnosisCombo.getValue() != null && !diagnosisCombo.getValue().isEmpty()
+                        ? diagnosisCombo.getValue() : null;
+                String note = medicalHistoryArea.getText() != null && !medicalHistoryArea.getText().trim().isEmpty()
+                        ? medicalHistoryArea.getText().trim() : null;
+                if (diagnosis != null || note != null) {
+                    system.updatePatientDetails(patientID, name, age, contact, diagnosis, note);
                 }
                 
                 // Schedule appointment if date is selected
@@ -727,25 +726,16 @@ public class HospitalFXApp extends Application {
                 return;
             }
             
-            Patient patient = system.findPatient(patientID);
-            if (patient == null) {
+            // Update fields, optionally adding new medical notes if provided
+            String diagnosis = diagnosisCombo.getValue() != null && !diagnosisCombo.getValue().isEmpty()
+                    ? diagnosisCombo.getValue() : null;
+            String note = medicalHistoryArea.getText() != null && !medicalHistoryArea.getText().trim().isEmpty()
+                    ? medicalHistoryArea.getText().trim() : null;
+            if (!system.updatePatientDetails(patientID, name, age, contact, diagnosis, note)) {
                 showError("Not Found", "Original patient not found for update.");
                 return;
             }
             
-            // Update fields
-            patient.setName(name);
-            patient.setAge(age);
-            patient.setContactInfo(contact);
-            
-            // Optionally add new medical notes if provided
-            if (diagnosisCombo.getValue() != null && !diagnosisCombo.getValue().isEmpty()) {
-                patient.getMedicalHistory().add("Diagnosis: " + diagnosisCombo.getValue());
-            }
-            if (medicalHistoryArea.getText() != null && !medicalHistoryArea.getText().trim().isEmpty()) {
-                patient.getMedicalHistory().add(medicalHistoryArea.getText().trim());
-            }
-            
             showSuccess("Updated", "Patient updated successfully!");
             isEditMode = false;
             editingPatientID = -1;
@@ -756,11 +746,23 @@ public class HospitalFXApp extends Application {
         }
     }
     
+    /**
+     * Suggests the lowest unused patient ID
+     */
+    private void prefillPatientID() {
+        int nextID = system.nextFreePatientID(1);
+        if (nextID > 0) {
+            patientIDField.setText(String.valueOf(nextID));
+        } else {
+            patientIDField.clear();
+        }
+    }
+    
     /**
      * Clears the form
      */
     private void clearForm() {
-        patientIDField.clear();
+        prefillPatientID();
         nameField.clear();
         ageField.clear();
         contactField.clear();
@@ -1126,10 +1128,100 @@ public class HospitalFXApp extends Application {
         Button revenueReportBtn = createActionButton("💰 Revenue Report", SUCCESS_GREEN);
         revenueReportBtn.setPrefWidth(300);
         revenueReportBtn.setOnAction(e -> {
-            String report = system.generateRevenueReport();
-            showReportDialog("Revenue Report", report);
+            ChoiceDialog<String> modeDialog = new ChoiceDialog<>("Top 50 balances",
+                    "Top 50 balances", "All billing records");
+            modeDialog.setTitle("Revenue Report");
+            modeDialog.setHeaderText(null);
+            modeDialog.setContentText("Show:");
+            modeDialog.showAndWait().ifPresent(mode -> {
+                String report = mode.startsWith("Top")
+                        ? system.generateRevenueReport(50)
+                        : system.generateRevenueReport();
+                showReportDialog("Revenue Report", report);
+            });
         });
 
+        Button analyticsReportBtn = createActionButton("📈 Monthly Analytics", LIGHT_BLUE);
+        analyticsReportBtn.setPrefWidth(300);
+        analyticsReportBtn.setOnAction(e -> showReportDialog("Analytics Report", system.generateAnalyticsReport()));
+        
+        // Large reports go straight to a file instead of a dialog
+        Button saveReportFileBtn = createActionButton("💾 Save Report to File", SUCCESS_GREEN);
+        saveReportFileBtn.setPrefWidth(300);
+        saveReportFileBtn.setOnAction(e -> {
+            ChoiceDialog<String> typeDialog = new ChoiceDialog<>("Revenue", "Revenue", "Appointment");
+            typeDialog.setTitle("Save Report");
+            typeDialog.setHeaderText(null);
+            typeDialog.setContentText("Report:");
+            typeDialog.showAndWait().ifPresent(type -> {
+                TextInputDialog dialog = new TextInputDialog(type.toLowerCase() + "_report.txt");
+                dialog.setTitle("Save Report");
+                dialog.setHeaderText(null);
+                dialog.setContentText("File:");
+                dialog.showAndWait().ifPresent(file -> {
+                    try {
+                        system.writeReportToFile(type, Paths.get(file));
+                        showSuccess("Report Saved", type + " report written to " + file);
+                    } catch (IOException ex) {
+                        showError("Save Failed", ex.getMessage());
+                    }
+                });
+            });
+        });
+
+        // Machine-readable export of all records for other tools
+        Button exportDataBtn = createActionButton("📤 Export Data", SUCCESS_GREEN);
+        exportDataBtn.setPrefWidth(300);
+        exportDataBtn.setOnAction(e -> {
+            ChoiceDialog<String> entityDialog = new ChoiceDialog<>("Patients",
+                    "Patients", "Appointments", "Billing", "VisitPlans");
+            entityDialog.setTitle("Export Data");
+            entityDialog.setHeaderText(null);
+            entityDialog.setContentText("Records:");
+            entityDialog.showAndWait().ifPresent(entity -> {
+                ChoiceDialog<String> formatDialog = new ChoiceDialog<>("CSV", "CSV", "JSON Lines");
+                formatDialog.setTitle("Export Data");
+                formatDialog.setHeaderText(null);
+                formatDialog.setContentText("Format:");
+                formatDialog.showAndWait().ifPresent(formatName -> {
+                    DataExporter.Format format = formatName.equals("CSV")
+                            ? DataExporter.Format.CSV : DataExporter.Format.JSON_LINES;
+                    String extension = format == DataExporter.Format.CSV ? ".csv" : ".jsonl";
+                    TextInputDialog dialog = new TextInputDialog(entity.toLowerCase() + extension);
+                    dialog.setTitle("Export Data");
+                    dialog.setHeaderText(null);
+                    dialog.setContentText("File:");
+                    dialog.showAndWait().ifPresent(file -> {
+                        // The file is written off the FX thread; records are read on it, between edits
+                        exportDataBtn.setDisable(true);
+                        Thread exporter = new Thread(() -> {
+                            try {
+                                long count = system.exportData(entity, format, Paths.get(file), Platform::runLater);
+                                Platform.runLater(() -> showSuccess("Data Exported",
+                                        count + " records written to " + file));
+                            } catch (IOException | RuntimeException ex) {
+                                Platform.runLater(() -> showError("Export Failed", ex.getMessage()));
+                            } finally {
+                                Platform.runLater(() -> exportDataBtn.setDisable(false));
+                            }
+                        }, "data-export");
+                        exporter.setDaemon(true);
+                        exporter.start();
+                    });
+                });
+            });
+        });
+
+        // Import progress, shown while an import runs in the background
+        ProgressBar importProgress = new ProgressBar(0);
+        importProgress.setPrefWidth(300);
+        Label importStatus = new Label();
+        Button cancelImportBtn = createActionButton("✖ Cancel Import", ERROR_RED);
+        cancelImportBtn.setPrefWidth(300);
+        VBox importBox = new VBox(8, importProgress, importStatus, cancelImportBtn);
+        importBox.setVisible(false);
+        importBox.setManaged(false);
+
         Button importCsvBtn = createActionButton("📥 Import CSV", PRIMARY_BLUE);
         importCsvBtn.setPrefWidth(300);
         importCsvBtn.setOnAction(e -> {
@@ -1138,17 +1230,110 @@ public class HospitalFXApp extends Application {
             dialog.setHeaderText(null);
             dialog.setContentText("CSV Path:");
             dialog.showAndWait().ifPresent(path -> {
-                try {
-                    int count = CsvImporter.importHealthcareCsv(system, path);
-                    showSuccess("Import Complete", "Imported " + count + " patients from CSV.");
+                // Ask how to treat patients that are already in the system
+                ChoiceDialog<String> duplicatesDialog = new ChoiceDialog<>("Skip duplicates",
+                        "Skip duplicates", "Update existing patients", "Import all rows");
+                duplicatesDialog.setTitle("Import CSV");
+                duplicatesDialog.setHeaderText("Patients are matched by name, age, hospital and admission date.");
+                duplicatesDialog.setContentText("Duplicates:");
+                Optional<String> duplicates = duplicatesDialog.showAndWait();
+                if (!duplicates.isPresent()) {
+                    return;
+                }
+                ImportOptions options = new ImportOptions();
+                if (duplicates.get().startsWith("Skip")) {
+                    options.setDuplicatePolicy(ImportOptions.DuplicatePolicy.SKIP);
+                } else if (duplicates.get().startsWith("Update")) {
+                    options.setDuplicatePolicy(ImportOptions.DuplicatePolicy.UPSERT);
+                }
+                // Batches are applied on the FX thread, between UI events
+                options.setApplyExecutor(Platform::runLater);
+                options.setProgressListener(progress -> Platform.runLater(() -> {
+                    importProgress.setProgress(progress.getFraction());
+                    importStatus.setText(progress.toString());
+                }));
+                ImportJob job = CsvImporter.startImport(system, path, options);
+
+                importCsvBtn.setDisable(true);
+                importProgress.setProgress(0);
+                importStatus.setText("Starting import...");
+                importBox.setVisible(true);
+                importBox.setManaged(true);
+                cancelImportBtn.setOnAction(ev -> job.cancel());
+
+                job.getResult().whenComplete((result, error) -> Platform.runLater(() -> {
+                    importBox.setVisible(false);
+                    importBox.setManaged(false);
+                    importCsvBtn.setDisable(false);
+                    if (error != null) {
+                        showError("Import Failed", error.getMessage());
+                    } else {
+                        showSuccess(result.isCancelled() ? "Import Cancelled" : "Import Complete", result.getSummary());
+                    }
                     refreshTable();
-                } catch (Exception ex) {
-                    showError("Import Failed", ex.getMessage());
+                }));
+            });
+        });
+        
+        // Continuous import of CSV extracts dropped into a folder
+        Label watchStatus = new Label();
+        Button watchFolderBtn = createActionButton(
+                folderIngestor != null ? "⏹ Stop Watching Folder" : "📂 Watch Folder", PRIMARY_BLUE);
+        watchFolderBtn.setPrefWidth(300);
+        watchFolderBtn.setOnAction(e -> {
+            if (folderIngestor != null) {
+                try {
+                    folderIngestor.close();
+                } catch (IOException ex) {
+                    showError("Stop Failed", ex.getMessage());
+                }
+                folderIngestor = null;
+                watchFolderBtn.setText("📂 Watch Folder");
+                watchStatus.setText("");
+                return;
+            }
+            TextInputDialog dialog = new TextInputDialog("d:/Important/DATAStructure project/incoming");
+            dialog.setTitle("Watch Folder");
+            dialog.setHeaderText("New and appended CSV files in this folder are imported automatically.");
+            dialog.setContentText("Folder:");
+            dialog.showAndWait().ifPresent(dir -> {
+                ImportOptions options = new ImportOptions();
+                options.setApplyExecutor(Platform::runLater);
+                options.setBatchPauseMillis(50); // leave the FX thread time for user input between batches
+                options.setDuplicatePolicy(ImportOptions.DuplicatePolicy.SKIP);
+                try {
+                    // Patients live in memory, so checkpoints only need to last for this session
+                    Path checkpoints = Files.createTempDirectory("csv-checkpoints");
+                    DirectoryIngestor ingestor = new DirectoryIngestor(system, Paths.get(dir), checkpoints, options,
+                            new DirectoryIngestor.Listener() {
+                                @Override
+                                public void onImported(Path file, ImportResult result) {
+                                    Platform.runLater(() -> {
+                                        watchStatus.setText(file.getFileName() + ": " + result.getSummary());
+                                        refreshTable();
+                                    });
+                                }
+
+                                @Override
+                                public void onFailed(Path file, IOException error) {
+                                    Platform.runLater(() -> watchStatus.setText(
+                                            file.getFileName() + ": import failed - " + error.getMessage()));
+                                }
+                            });
+                    ingestor.start();
+                    folderIngestor = ingestor;
+                    watchFolderBtn.setText("⏹ Stop Watching Folder");
+                    watchStatus.setText("Watching " + dir);
+                } catch (IOException ex) {
+                    showError("Watch Failed", ex.getMessage());
                 }
             });
         });
+        watchStatus.setWrapText(true);
+        watchStatus.setMaxWidth(300);
         
-        reportsBox.getChildren().addAll(patientReportBtn, appointmentReportBtn, revenueReportBtn, importCsvBtn);
+        reportsBox.getChildren().addAll(patientReportBtn, appointmentReportBtn, revenueReportBtn, analyticsReportBtn,
+                saveReportFileBtn, exportDataBtn, importCsvBtn, importBox, watchFolderBtn, watchStatus);
         container.getChildren().addAll(title, reportPatientIDField, reportsBox);
         
         animateContentChange(container);
@@ -1189,6 +1374,7 @@ public class HospitalFXApp extends Application {
             nameField.setText(patient.getName());
             ageField.setText(String.valueOf(patient.getAge()));
             contactField.setText(patient.getContactInfo());
+            diagnosisCombo.setValue(patient.getDiagnosis());
         } else {
             showError("Not Found", "Patient with ID " + patientID + " not found");
         }
@@ -1238,14 +1424,9 @@ public class HospitalFXApp extends Application {
             }
 
             for (Patient p : patients) {
-                // Extract the first Diagnosis entry from medical history
-                String diagnosis = "No diagnosis";
-                for (String entry : p.getMedicalHistory()) {
-                    if (entry != null && entry.toLowerCase().startsWith("diagnosis")) {
-                        String cleaned = entry.replaceFirst("(?i)diagnosis:\\s*", "").trim();
-                        diagnosis = cleaned.isEmpty() ? "No diagnosis" : cleaned;
-                        break;
-                    }
+                String diagnosis = p.getDiagnosis();
+                if (diagnosis == null || diagnosis.isEmpty()) {
+                    diagnosis = "No diagnosis";
                 }
 
                 String appointmentDate = apptMap.getOrDefault(p.getPatientID(), "No appointment");
@@ -1421,10 +1602,7 @@ public class HospitalFXApp extends Application {
         system.addPatient(102, "Jane Smith", 30, "jane.smith@email.com");
         system.addPatient(103, "Bob Johnson", 65, "bob.j@email.com");
         
-        Patient p1 = system.findPatient(101);
-        if (p1 != null) {
-            p1.getMedicalHistory().add("Diagnosis: General Checkup");
-        }
+        system.updatePatientDetails(101, "John Doe", 45, "john.doe@email.com", "General Checkup", null);
         
         system.scheduleAppointment(101, "2024-12-25", "10:00");
         
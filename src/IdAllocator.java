@@ -0,0 +1,168 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Bitmap-based allocation of free patient IDs
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks which non-negative int IDs are in use with a sparse paged bitmap:
+ * one bit per ID, in pages of 65536 IDs that are only allocated once an ID
+ * in their range is used. Finding the next free ID skips full pages and
+ * tests 64 IDs per step. The allocator keeps no cursor: callers handing
+ * out a run of IDs pass the last ID plus one as the next start, as
+ * {@link #allocateBlock} does, so each search resumes where the previous
+ * one stopped and the run costs O(1) amortised per ID.
+ */
+public class IdAllocator {
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_BITS = 1 << PAGE_SHIFT;
+    private static final int WORDS_PER_PAGE = PAGE_BITS / 64;
+
+    private final Map<Integer, Page> pages;
+    private int usedCount;
+
+    public IdAllocator() {
+        this.pages = new HashMap<>();
+        this.usedCount = 0;
+    }
+
+    /**
+     * Marks an ID as used.
+     *
+     * @return false if it was already used
+     */
+    public boolean markUsed(int id) {
+        checkID(id);
+        Page page = pages.computeIfAbsent(id >>> PAGE_SHIFT, k -> new Page());
+        int bit = id & (PAGE_BITS - 1);
+        long mask = 1L << bit;
+        if ((page.words[bit >>> 6] & mask) != 0) {
+            return false;
+        }
+        page.words[bit >>> 6] |= mask;
+        page.used++;
+        usedCount++;
+        return true;
+    }
+
+    /**
+     * Marks an ID as free again.
+     *
+     * @return false if it was not used
+     */
+    public boolean release(int id) {
+        checkID(id);
+        Page page = pages.get(id >>> PAGE_SHIFT);
+        int bit = id & (PAGE_BITS - 1);
+        long mask = 1L << bit;
+        if (page == null || (page.words[bit >>> 6] & mask) == 0) {
+            return false;
+        }
+        page.words[bit >>> 6] &= ~mask;
+        usedCount--;
+        if (--page.used == 0) {
+            pages.remove(id >>> PAGE_SHIFT);
+        }
+        return true;
+    }
+
+    public boolean isUsed(int id) {
+        if (id < 0) return false;
+        Page page = pages.get(id >>> PAGE_SHIFT);
+        int bit = id & (PAGE_BITS - 1);
+        return page != null && (page.words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Gets the smallest free ID that is at least {@code from}, without
+     * marking it, or -1 if every ID from there up to Integer.MAX_VALUE is used.
+     */
+    public int nextFree(int from) {
+        checkID(from);
+        int pageNo = from >>> PAGE_SHIFT;
+        int bit = from & (PAGE_BITS - 1);
+        while (pageNo <= Integer.MAX_VALUE >>> PAGE_SHIFT) {
+            Page page = pages.get(pageNo);
+            if (page == null) {
+                return (pageNo << PAGE_SHIFT) | bit;
+            }
+            if (page.used < PAGE_BITS) {
+                int word = bit >>> 6;
+                // Treat IDs below the start as used
+                long free = ~page.words[word] & (-1L << (bit & 63));
+                while (free == 0 && ++word < WORDS_PER_PAGE) {
+                    free = ~page.words[word];
+                }
+                if (free != 0) {
+                    return (pageNo << PAGE_SHIFT) | (word << 6) | Long.numberOfTrailingZeros(free);
+                }
+            }
+            pageNo++;
+            bit = 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Marks and returns the smallest free ID that is at least {@code from}.
+     *
+     * @throws IllegalStateException if no ID is free from there on
+     */
+    public int allocate(int from) {
+        int id = nextFree(from);
+        if (id < 0) {
+            throw new IllegalStateException("No free ID at or above " + from);
+        }
+        markUsed(id);
+        return id;
+    }
+
+    /**
+     * Marks and returns the {@code count} smallest free IDs that are at
+     * least {@code from}, in ascending order.
+     *
+     * @throws IllegalStateException if not enough IDs are free
+     */
+    public int[] allocateBlock(int from, int count) {
+        int[] ids = new int[count];
+        int next = from;
+        for (int i = 0; i < count; i++) {
+            int id = next >= 0 ? nextFree(next) : -1; // next overflows past Integer.MAX_VALUE
+            if (id < 0) {
+                for (int j = 0; j < i; j++) {
+                    release(ids[j]);
+                }
+                throw new IllegalStateException("Fewer than " + count + " free IDs at or above " + from);
+            }
+            markUsed(id);
+            ids[i] = id;
+            next = id + 1;
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the number of IDs in use.
+     */
+    public int getUsedCount() {
+        return usedCount;
+    }
+
+    private static void checkID(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID must not be negative: " + id);
+        }
+    }
+
+    /**
+     * Bits for one range of 65536 IDs.
+     */
+    private static class Page {
+        private final long[] words = new long[WORDS_PER_PAGE];
+        private int used;
+    }
+}
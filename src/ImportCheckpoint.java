@@ -0,0 +1,183 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Saved position of a resumable CSV import
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * The point up to which a CSV file has been imported: the byte offset of
+ * the first line not yet applied and the number of data lines before it.
+ * Because generated patient IDs come from the line number, a resumed
+ * import assigns the same IDs an uninterrupted one would have.
+ *
+ * A checksum of the header, the identity of the file (its file key, or
+ * its creation time where there is none) and its last-modified time when
+ * the import started are kept, so a checkpoint is not applied to a
+ * different file, including a new file under the same name and header.
+ */
+public class ImportCheckpoint {
+    private final long offset;
+    private final int row;
+    private final long headerChecksum;
+    private final String fileIdentity;
+    private final long fileModified;
+
+    public ImportCheckpoint(long offset, int row, long headerChecksum, String fileIdentity, long fileModified) {
+        this.offset = offset;
+        this.row = row;
+        this.headerChecksum = headerChecksum;
+        this.fileIdentity = fileIdentity;
+        this.fileModified = fileModified;
+    }
+
+    /**
+     * Gets the byte offset where the import continues.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the number of data lines (including blank ones) already imported.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    public long getHeaderChecksum() {
+        return headerChecksum;
+    }
+
+    public String getFileIdentity() {
+        return fileIdentity;
+    }
+
+    public long getFileModified() {
+        return fileModified;
+    }
+
+    /**
+     * Checks that a file is the one this checkpoint was saved for, and that
+     * it has only grown since: same identity, not shorter than the offset
+     * and not modified earlier than when the import started.
+     */
+    public boolean matches(BasicFileAttributes file) {
+        return fileIdentity.equals(identityOf(file)) && file.size() >= offset
+                && file.lastModifiedTime().toMillis() >= fileModified;
+    }
+
+    /**
+     * Gets the identity of a file: its file key (device and inode on Unix),
+     * or its creation time where the file system has no file keys.
+     */
+    public static String identityOf(BasicFileAttributes file) {
+        Object key = file.fileKey();
+        return key != null ? "key:" + key : "created:" + file.creationTime().toMillis();
+    }
+
+    /**
+     * Gets the conventional checkpoint file for a CSV file, next to it.
+     */
+    public static Path defaultFileFor(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Computes the checksum stored with checkpoints of a file with this header.
+     */
+    public static long checksum(List<String> headers) {
+        CRC32 crc = new CRC32();
+        crc.update(String.join(",", headers).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Reads a checkpoint, or returns null if the file does not exist.
+     */
+    public static ImportCheckpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(in);
+        }
+        String fileIdentity = props.getProperty("fileIdentity");
+        try {
+            if (fileIdentity == null) {
+                throw new NumberFormatException("fileIdentity missing");
+            }
+            return new ImportCheckpoint(
+                    Long.parseLong(props.getProperty("offset")),
+                    Integer.parseInt(props.getProperty("row")),
+                    Long.parseLong(props.getProperty("headerChecksum")),
+                    fileIdentity,
+                    Long.parseLong(props.getProperty("fileModified")));
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt import checkpoint: " + file, e);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file, forces it to disk and
+     * renames it over the old one, so a crash leaves either the old or the
+     * new checkpoint.
+     */
+    public void save(Path file) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("offset", Long.toString(offset));
+        props.setProperty("row", Integer.toString(row));
+        props.setProperty("headerChecksum", Long.toString(headerChecksum));
+        props.setProperty("fileIdentity", fileIdentity);
+        props.setProperty("fileModified", Long.toString(fileModified));
+        StringWriter text = new StringWriter();
+        props.store(text, "CSV import checkpoint");
+        ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    // Makes the rename durable where directories can be opened and forced (not on Windows)
+    private static void syncDirectory(Path dir) {
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort: the checkpoint file itself is already on disk
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ImportCheckpoint{Offset=" + offset + ", Row=" + row + "}";
+    }
+}
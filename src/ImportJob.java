@@ -0,0 +1,59 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Handle to an asynchronous CSV import
+ */
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A CSV import running in the background, started by
+ * {@link CsvImporter#startImport}. Cancellation is cooperative: the import
+ * stops before the next batch, keeps the batches already applied, and
+ * completes with a result marked as cancelled.
+ */
+public class ImportJob {
+    private final CompletableFuture<ImportResult> result;
+    private volatile boolean cancelled;
+    private volatile ImportProgress progress;
+
+    ImportJob() {
+        this.result = new CompletableFuture<>();
+        this.cancelled = false;
+        this.progress = new ImportProgress(0, 0, 0, 0);
+    }
+
+    /**
+     * Asks the import to stop.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the latest progress snapshot.
+     */
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Gets the result, which completes exceptionally if the import fails.
+     */
+    public CompletableFuture<ImportResult> getResult() {
+        return result;
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    void setProgress(ImportProgress progress) {
+        this.progress = progress;
+    }
+}
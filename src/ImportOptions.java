@@ -0,0 +1,151 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Settings for an asynchronous CSV import
+ */
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Settings for {@link CsvImporter#startImport}.
+ *
+ * The importer reads and parses on its own thread but changes the
+ * PatientManagementSystem only through the apply executor, one batch at a
+ * time. A JavaFX application passes {@code Platform::runLater} so patients
+ * are only touched on the FX thread.
+ */
+public class ImportOptions {
+
+    /**
+     * What to do with a row whose natural key matches a known patient.
+     */
+    public enum DuplicatePolicy {
+        /** Import every row, as a new patient. */
+        ALLOW,
+        /** Skip the row. */
+        SKIP,
+        /** Update the known patient from the row. */
+        UPSERT
+    }
+
+    private Executor applyExecutor;
+    private Consumer<ImportProgress> progressListener;
+    private Path checkpointFile;
+    private DuplicatePolicy duplicatePolicy;
+    private NaturalKey naturalKey;
+    private boolean completeLinesOnly;
+    private long batchPauseMillis;
+
+    public ImportOptions() {
+        this.applyExecutor = Runnable::run;
+        this.progressListener = null;
+        this.checkpointFile = null;
+        this.duplicatePolicy = DuplicatePolicy.ALLOW;
+        this.naturalKey = NaturalKey.defaultKey();
+        this.completeLinesOnly = false;
+        this.batchPauseMillis = 0;
+    }
+
+    /**
+     * Creates a copy of other options.
+     */
+    public ImportOptions(ImportOptions other) {
+        this.applyExecutor = other.applyExecutor;
+        this.progressListener = other.progressListener;
+        this.checkpointFile = other.checkpointFile;
+        this.duplicatePolicy = other.duplicatePolicy;
+        this.naturalKey = other.naturalKey;
+        this.completeLinesOnly = other.completeLinesOnly;
+        this.batchPauseMillis = other.batchPauseMillis;
+    }
+
+    public Executor getApplyExecutor() {
+        return applyExecutor;
+    }
+
+    /**
+     * Sets where batches are applied. Defaults to the import thread itself.
+     */
+    public void setApplyExecutor(Executor applyExecutor) {
+        this.applyExecutor = applyExecutor;
+    }
+
+    public Consumer<ImportProgress> getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * Sets a listener called on the import thread after each applied batch.
+     */
+    public void setProgressListener(Consumer<ImportProgress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Makes the import resumable. After each applied batch the position is
+     * saved to this file; if the file already exists, the import continues
+     * from the saved position instead of the start. When the import
+     * finishes the checkpoint points at the end of the file, so running it
+     * again only imports lines appended since. Null (the default) disables
+     * checkpoints.
+     */
+    public void setCheckpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public DuplicatePolicy getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+
+    /**
+     * Sets how rows matching a patient already in the system, or earlier in
+     * the file, are handled. Defaults to ALLOW.
+     */
+    public void setDuplicatePolicy(DuplicatePolicy duplicatePolicy) {
+        this.duplicatePolicy = duplicatePolicy;
+    }
+
+    public boolean isCompleteLinesOnly() {
+        return completeLinesOnly;
+    }
+
+    /**
+     * Stops at a last line that has no line terminator yet, for files that
+     * are still being written. With a checkpoint file the line is picked up
+     * by a later run once it is complete.
+     */
+    public void setCompleteLinesOnly(boolean completeLinesOnly) {
+        this.completeLinesOnly = completeLinesOnly;
+    }
+
+    public long getBatchPauseMillis() {
+        return batchPauseMillis;
+    }
+
+    /**
+     * Sets a pause after each applied batch, which leaves the apply
+     * executor free for other work (such as UI events) between batches.
+     */
+    public void setBatchPauseMillis(long batchPauseMillis) {
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    public NaturalKey getNaturalKey() {
+        return naturalKey;
+    }
+
+    /**
+     * Sets the columns that identify a patient for the duplicate policy.
+     * Defaults to {@link NaturalKey#defaultKey()}.
+     */
+    public void setNaturalKey(NaturalKey naturalKey) {
+        this.naturalKey = naturalKey;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Progress snapshot of a running CSV import
+ */
+
+/**
+ * How far an import job has got: data rows and bytes committed so far,
+ * the file size and the time elapsed. Rates and the ETA are derived from
+ * these. A resumed import counts the rows and bytes done before the resume
+ * in its totals, but leaves them out of the rates, since the elapsed time
+ * starts at the resume. Instances are immutable.
+ */
+public class ImportProgress {
+    private final long rows;
+    private final long bytes;
+    private final long totalBytes;
+    private final long elapsedNanos;
+    private final long resumedRows;
+    private final long resumedBytes;
+
+    public ImportProgress(long rows, long bytes, long totalBytes, long elapsedNanos) {
+        this(rows, bytes, totalBytes, elapsedNanos, 0, 0);
+    }
+
+    /**
+     * @param resumedRows rows already done when this run started
+     * @param resumedBytes bytes already done when this run started
+     */
+    public ImportProgress(long rows, long bytes, long totalBytes, long elapsedNanos,
+                          long resumedRows, long resumedBytes) {
+        this.rows = rows;
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.resumedRows = resumedRows;
+        this.resumedBytes = resumedBytes;
+    }
+
+    /**
+     * Gets the number of data lines read and applied.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of bytes of the file read and applied.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the time since this run of the import started.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the rows that were already imported when the import resumed.
+     */
+    public long getResumedRows() {
+        return resumedRows;
+    }
+
+    public long getResumedBytes() {
+        return resumedBytes;
+    }
+
+    /**
+     * Gets the completed fraction of the file, from 0 to 1.
+     */
+    public double getFraction() {
+        return totalBytes > 0 ? Math.min(1.0, (double) bytes / totalBytes) : 1.0;
+    }
+
+    /**
+     * Gets the rate of this run, not counting resumed rows.
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? (rows - resumedRows) * 1e9 / elapsedNanos : 0.0;
+    }
+
+    /**
+     * Estimates the seconds left from the byte rate of this run, or returns
+     * -1 before this run has processed anything.
+     */
+    public long getEtaSeconds() {
+        long processed = bytes - resumedBytes;
+        if (processed <= 0 || elapsedNanos == 0) return -1;
+        double bytesPerNano = (double) processed / elapsedNanos;
+        return (long) Math.ceil((totalBytes - bytes) / bytesPerNano / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        long eta = getEtaSeconds();
+        return String.format("%,d rows, %.1f of %.1f MB, %,.0f rows/s, ETA %s",
+                rows, bytes / 1e6, totalBytes / 1e6, getRowsPerSecond(), eta < 0 ? "-" : eta + "s");
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Outcome of a CSV import
+ */
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts what a CSV import did: data rows read, patients created, and for
+ * each column how many values could not be parsed and were replaced by the
+ * default.
+ */
+public class ImportResult {
+    private int rows;
+    private int created;
+    private int duplicates;
+    private int updated;
+    private final int[] badValues;
+    private List<CsvSchema.Column> missingColumns;
+    private boolean cancelled;
+    private int resumedAtRow;
+
+    public ImportResult() {
+        this.badValues = new int[CsvSchema.Column.values().length];
+        this.missingColumns = Collections.emptyList();
+    }
+
+    void recordRow(boolean patientCreated) {
+        rows++;
+        if (patientCreated) created++;
+    }
+
+    void recordDuplicate(boolean patientUpdated) {
+        rows++;
+        duplicates++;
+        if (patientUpdated) updated++;
+    }
+
+    void recordBadValue(CsvSchema.Column column) {
+        badValues[column.ordinal()]++;
+    }
+
+    void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    void setResumedAtRow(int resumedAtRow) {
+        this.resumedAtRow = resumedAtRow;
+    }
+
+    void setMissingColumns(List<CsvSchema.Column> missingColumns) {
+        this.missingColumns = missingColumns;
+    }
+
+    /**
+     * Gets the number of non-blank data rows read.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of patients created.
+     */
+    public int getCreated() {
+        return created;
+    }
+
+    /**
+     * Gets the number of rows that did not create a patient, including
+     * duplicates.
+     */
+    public int getSkipped() {
+        return rows - created;
+    }
+
+    /**
+     * Gets the number of rows whose natural key matched a known patient.
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of duplicate rows that updated the known patient.
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getBadValueCount(CsvSchema.Column column) {
+        return badValues[column.ordinal()];
+    }
+
+    /**
+     * Gets the bad-value count of every column that had at least one.
+     */
+    public Map<CsvSchema.Column, Integer> getBadValueCounts() {
+        Map<CsvSchema.Column, Integer> counts = new EnumMap<>(CsvSchema.Column.class);
+        for (CsvSchema.Column column : CsvSchema.Column.values()) {
+            if (badValues[column.ordinal()] > 0) {
+                counts.put(column, badValues[column.ordinal()]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Checks whether the import was cancelled before the end of the file.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of data lines skipped because a checkpoint showed
+     * they were imported earlier, or 0 if the import started at the top.
+     */
+    public int getResumedAtRow() {
+        return resumedAtRow;
+    }
+
+    /**
+     * Gets the optional columns the file did not have.
+     */
+    public List<CsvSchema.Column> getMissingColumns() {
+        return missingColumns;
+    }
+
+    /**
+     * Gets a one-paragraph summary for display.
+     */
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        if (cancelled) {
+            sb.append("Import cancelled. ");
+        }
+        sb.append("Imported ").append(created).append(" patients from ").append(rows).append(" rows.");
+        if (resumedAtRow > 0) {
+            sb.append(" Resumed after row ").append(resumedAtRow).append('.');
+        }
+        if (duplicates > 0) {
+            sb.append(" Duplicates: ").append(duplicates);
+            if (updated > 0) {
+                sb.append(" (").append(updated).append(" updated)");
+            }
+            sb.append('.');
+        }
+        if (getSkipped() > duplicates) {
+            sb.append(" Skipped: ").append(getSkipped() - duplicates).append('.');
+        }
+        Map<CsvSchema.Column, Integer> bad = getBadValueCounts();
+        if (!bad.isEmpty()) {
+            sb.append(" Invalid values replaced by defaults:");
+            String sep = " ";
+            for (Map.Entry<CsvSchema.Column, Integer> e : bad.entrySet()) {
+                sb.append(sep).append(e.getKey().getHeader()).append(" (").append(e.getValue()).append(')');
+                sep = ", ";
+            }
+            sb.append('.');
+        }
+        if (!missingColumns.isEmpty()) {
+            sb.append(" Missing columns:");
+            String sep = " ";
+            for (CsvSchema.Column column : missingColumns) {
+                sb.append(sep).append(column.getHeader());
+                sep = ", ";
+            }
+            sb.append('.');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Open-addressing hash map from long keys to int values
+ */
+
+/**
+ * Maps long keys to int values with open addressing and linear probing
+ * over two parallel arrays, so an entry costs 12 bytes instead of two boxed
+ * objects and a map node. Key 0 marks an empty slot and cannot be stored.
+ */
+public class LongIntHashMap {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of entries to hold without resizing
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Gets the value for a key, or {@code missing} if there is none.
+     */
+    public int get(long key, int missing) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return missing;
+    }
+
+    public boolean containsKey(long key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the value for a key, replacing any earlier value.
+     */
+    public void put(long key, int value) {
+        checkKey(key);
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Removes a key. The entries after it in its probe run are shifted
+     * back, so no tombstones are left behind.
+     *
+     * @return false if the key was not present
+     */
+    public boolean remove(long key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            // Move an entry into the gap unless its home slot lies between the gap and it
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    // Spreads the key bits (MurmurHash3 finalizer) before masking
+    private static int slot(long key, int mask) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved for empty slots");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Size-bounded LRU cache with hit/miss/eviction statistics
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache built on a LinkedHashMap kept in order of use:
+ * get and put move an entry to the end, peek leaves it where it is. When
+ * the cache grows past its capacity the eldest entry is handed to the
+ * eviction listener and removed.
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Receives entries pushed out of the cache.
+     */
+    public interface EvictionListener<K, V> {
+        void onEvict(K key, V value);
+    }
+
+    private final int capacity;
+    private final EvictionListener<K, V> listener;
+    private final LinkedHashMap<K, V> map;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int capacity, EvictionListener<K, V> listener) {
+        this.capacity = Math.max(capacity, 1);
+        this.listener = listener;
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= LruCache.this.capacity) return false;
+                evictions++;
+                if (listener != null) {
+                    listener.onEvict(eldest.getKey(), eldest.getValue());
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets a value and marks it as recently used. Counts a hit or a miss.
+     */
+    public V get(K key) {
+        V value = map.remove(key);
+        if (value != null) {
+            map.put(key, value); // re-added as the most recently used
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Gets a value without counting a hit or a miss and without marking it
+     * as recently used, e.g. for full scans.
+     */
+    public V peek(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Adds or replaces a value and marks it as recently used.
+     */
+    public void put(K key, V value) {
+        map.remove(key);
+        map.put(key, value);
+    }
+
+    public V remove(K key) {
+        return map.remove(key);
+    }
+
+    /**
+     * Evicts the least recently used entry as if the cache had overflowed,
+     * for callers that bound the cache by something other than its count.
+     *
+     * @return false if the cache is empty
+     */
+    public boolean evictEldest() {
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        if (!it.hasNext()) return false;
+        Map.Entry<K, V> eldest = it.next();
+        it.remove();
+        evictions++;
+        if (listener != null) {
+            listener.onEvict(eldest.getKey(), eldest.getValue());
+        }
+        return true;
+    }
+
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets a snapshot of the cached values, least recently used first.
+     */
+    public List<V> values() {
+        return new ArrayList<>(map.values());
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, map.size(), capacity);
+    }
+
+    /**
+     * Immutable snapshot of cache statistics.
+     */
+    public static class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int capacity;
+
+        public CacheStats(long hits, long misses, long evictions, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats{Hits=" + hits + ", Misses=" + misses + ", Evictions=" + evictions +
+                   ", Size=" + size + "/" + capacity + ", HitRate=" + String.format("%.1f%%", getHitRate() * 100) + "}";
+        }
+    }
+}
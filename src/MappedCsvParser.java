@@ -0,0 +1,254 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Byte-level CSV parser over memory-mapped files
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Parses a CSV file directly from memory-mapped regions of the file.
+ *
+ * Lines end at {@code \n}, {@code \r} or {@code \r\n}, like
+ * BufferedReader.readLine. Fields are separated by commas outside quotes,
+ * and {@code ""} inside quotes is an escaped quote. For each line the parser
+ * only records where the fields start and end; a field becomes a String only
+ * when {@link Row#getString(int)} is called for it.
+ */
+public class MappedCsvParser implements Closeable {
+    private static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Receives each line of the file in order.
+     */
+    public interface RowHandler {
+        /**
+         * @return false to stop parsing after this row
+         */
+        boolean onRow(Row row) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final int regionSize;
+
+    public MappedCsvParser(Path path) throws IOException {
+        this(path, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param regionSize bytes mapped at a time; regions grow for longer lines
+     */
+    public MappedCsvParser(Path path, int regionSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.regionSize = Math.max(regionSize, 64);
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Parses lines starting at the given byte offset, which must be the start
+     * of a line.
+     *
+     * @return the offset just after the last line passed to the handler
+     */
+    public long parse(long startOffset, RowHandler handler) throws IOException {
+        long fileSize = channel.size();
+        long pos = startOffset;
+        int mapSize = regionSize;
+        Row row = new Row();
+        while (pos < fileSize) {
+            int len = (int) Math.min(mapSize, fileSize - pos);
+            boolean lastRegion = pos + len == fileSize;
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            row.buf = buf;
+            row.base = pos;
+
+            int p = 0;
+            while (p < len) {
+                int next = scanLine(buf, p, len, lastRegion, row);
+                if (next < 0) {
+                    break; // line continues past this region
+                }
+                row.next = next;
+                if (!handler.onRow(row)) {
+                    return pos + next;
+                }
+                p = next;
+            }
+            if (p == 0 && !lastRegion) {
+                // A single line longer than the region: map more at once
+                mapSize = (int) Math.min((long) mapSize * 2, Integer.MAX_VALUE);
+                continue;
+            }
+            pos += p;
+        }
+        return pos;
+    }
+
+    // Records field boundaries of the line at p; returns the start of the next line, or -1 if incomplete
+    private static int scanLine(MappedByteBuffer buf, int p, int len, boolean lastRegion, Row row) {
+        row.count = 0;
+        row.start = p;
+        int fieldStart = p;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        int i = p;
+        while (i < len) {
+            byte c = buf.get(i);
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            if (c == '"') {
+                // Toggling twice for an escaped "" leaves the state unchanged
+                inQuotes = !inQuotes;
+                quoted = true;
+            } else if (c == ',' && !inQuotes) {
+                row.addField(fieldStart, i, quoted);
+                fieldStart = i + 1;
+                quoted = false;
+            }
+            i++;
+        }
+        if (i == len && !lastRegion) {
+            return -1;
+        }
+        row.addField(fieldStart, i, quoted);
+        row.end = i;
+        if (i == len) {
+            return i;
+        }
+        if (buf.get(i) == '\r') {
+            if (i + 1 < len) {
+                return buf.get(i + 1) == '\n' ? i + 2 : i + 1;
+            }
+            if (!lastRegion) {
+                return -1; // need the next byte to tell \r from \r\n
+            }
+        }
+        return i + 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * One line of the file. Only valid inside {@link RowHandler#onRow(Row)}.
+     */
+    public static class Row {
+        private MappedByteBuffer buf;
+        private long base;
+        private int start;
+        private int end;
+        private int next;
+        private int count;
+        private int[] fieldStarts = new int[32];
+        private int[] fieldEnds = new int[32];
+        private boolean[] fieldQuoted = new boolean[32];
+        private byte[] scratch = new byte[256];
+
+        private void addField(int from, int to, boolean quoted) {
+            if (count == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, count * 2);
+                fieldEnds = Arrays.copyOf(fieldEnds, count * 2);
+                fieldQuoted = Arrays.copyOf(fieldQuoted, count * 2);
+            }
+            fieldStarts[count] = from;
+            fieldEnds[count] = to;
+            fieldQuoted[count] = quoted;
+            count++;
+        }
+
+        public int fieldCount() {
+            return count;
+        }
+
+        /**
+         * Gets the byte offset in the file where this line starts.
+         */
+        public long getOffset() {
+            return base + start;
+        }
+
+        /**
+         * Gets the byte offset in the file just past the line's content,
+         * not counting the line terminator.
+         */
+        public long getEndOffset() {
+            return base + end;
+        }
+
+        /**
+         * Gets the byte offset in the file where the next line starts,
+         * which is where parsing resumes after this line.
+         */
+        public long getNextOffset() {
+            return base + next;
+        }
+
+        /**
+         * Checks whether the line contains only whitespace.
+         */
+        public boolean isBlank() {
+            for (int i = start; i < end; i++) {
+                if ((buf.get(i) & 0xFF) > ' ') return false;
+            }
+            return true;
+        }
+
+        /**
+         * Gets a field with quotes removed and surrounding whitespace trimmed,
+         * or null if the line has fewer fields.
+         */
+        public String getString(int index) {
+            if (index < 0 || index >= count) return null;
+            int n = copyField(index);
+            int from = 0;
+            while (from < n && (scratch[from] & 0xFF) <= ' ') from++;
+            while (n > from && (scratch[n - 1] & 0xFF) <= ' ') n--;
+            return new String(scratch, from, n - from, StandardCharsets.UTF_8);
+        }
+
+        // Copies the unquoted bytes of a field into scratch and returns the length
+        private int copyField(int index) {
+            int from = fieldStarts[index];
+            int to = fieldEnds[index];
+            if (scratch.length < to - from) {
+                scratch = new byte[Math.max(to - from, scratch.length * 2)];
+            }
+            int n = 0;
+            if (!fieldQuoted[index]) {
+                for (int i = from; i < to; i++) {
+                    scratch[n++] = buf.get(i);
+                }
+                return n;
+            }
+            boolean inQuotes = false;
+            for (int i = from; i < to; i++) {
+                byte c = buf.get(i);
+                if (c == '"') {
+                    if (inQuotes && i + 1 < to && buf.get(i + 1) == '"') {
+                        scratch[n++] = '"'; // Escaped quote
+                        i++;
+                    } else {
+                        inQuotes = !inQuotes;
+                    }
+                } else {
+                    scratch[n++] = c;
+                }
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Stable array-based merge sort on pre-extracted keys
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Stable merge sort used by the reports.
+ *
+ * The sort key of every element is read once into an array that is sorted
+ * alongside the elements, so the comparisons never call back into the
+ * records. All merging goes through one scratch buffer allocated up front.
+ * Runs of {@value #INSERTION_THRESHOLD} or fewer elements are insertion
+ * sorted, and two halves that are already in order are not merged, so
+ * sorted input costs O(n).
+ *
+ * The parallel variants split the work with fork/join; inputs smaller than
+ * {@value #PARALLEL_THRESHOLD} elements are sorted on the calling thread.
+ */
+public final class MergeSort {
+    static final int INSERTION_THRESHOLD = 32;
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private MergeSort() {
+    }
+
+    /**
+     * Returns the items sorted by ascending key. Equal keys keep their order.
+     */
+    public static <T, K extends Comparable<? super K>> List<T> sorted(
+            Collection<? extends T> items, Function<? super T, ? extends K> key) {
+        ObjectKeys run = new ObjectKeys(items.toArray(), key);
+        run.sort(0, run.items.length);
+        return run.result();
+    }
+
+    /**
+     * Like {@link #sorted(Collection, Function)}, using fork/join for large inputs.
+     */
+    public static <T, K extends Comparable<? super K>> List<T> parallelSorted(
+            Collection<? extends T> items, Function<? super T, ? extends K> key) {
+        ObjectKeys run = new ObjectKeys(items.toArray(), key);
+        run.parallelSort();
+        return run.result();
+    }
+
+    /**
+     * Returns the items sorted by descending numeric key. Equal keys keep
+     * their order.
+     */
+    public static <T> List<T> sortedDescending(Collection<? extends T> items, ToDoubleFunction<? super T> key) {
+        DoubleKeys run = new DoubleKeys(items.toArray(), key);
+        run.sort(0, run.items.length);
+        return run.result();
+    }
+
+    /**
+     * Like {@link #sortedDescending(Collection, ToDoubleFunction)}, using
+     * fork/join for large inputs.
+     */
+    public static <T> List<T> parallelSortedDescending(Collection<? extends T> items, ToDoubleFunction<? super T> key) {
+        DoubleKeys run = new DoubleKeys(items.toArray(), key);
+        run.parallelSort();
+        return run.result();
+    }
+
+    /**
+     * Elements with their keys and the shared scratch buffers. The scratch
+     * only ever holds a left half, so half the input size is enough; forked
+     * tasks work on disjoint ranges of it.
+     */
+    private abstract static class Run {
+        final Object[] items;
+        final Object[] itemScratch;
+
+        Run(Object[] items) {
+            this.items = items;
+            this.itemScratch = new Object[(items.length + 1) / 2];
+        }
+
+        // Sorts [from, to)
+        final void sort(int from, int to) {
+            if (to - from <= INSERTION_THRESHOLD) {
+                insertionSort(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            sort(from, mid);
+            sort(mid, to);
+            merge(from, mid, to);
+        }
+
+        final void parallelSort() {
+            if (items.length < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+                sort(0, items.length);
+            } else {
+                ForkJoinPool.commonPool().invoke(new SortTask(this, 0, items.length));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        final <T> List<T> result() {
+            return (List<T>) Arrays.asList(items);
+        }
+
+        abstract void insertionSort(int from, int to);
+
+        // Merges the sorted ranges [from, mid) and [mid, to)
+        abstract void merge(int from, int mid, int to);
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        SortTask(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < PARALLEL_THRESHOLD) {
+                run.sort(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(run, from, mid), new SortTask(run, mid, to));
+            run.merge(from, mid, to);
+        }
+    }
+
+    private static final class ObjectKeys extends Run {
+        private final Comparable<Object>[] keys;
+        private final Comparable<Object>[] keyScratch;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ObjectKeys(Object[] items, Function<?, ?> keyFunction) {
+            super(items);
+            Function<Object, ?> key = (Function<Object, ?>) keyFunction;
+            keys = new Comparable[items.length];
+            for (int i = 0; i < items.length; i++) {
+                keys[i] = (Comparable<Object>) key.apply(items[i]);
+            }
+            keyScratch = new Comparable[itemScratch.length];
+        }
+
+        @Override
+        void insertionSort(int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                Comparable<Object> k = keys[i];
+                Object item = items[i];
+                int j = i - 1;
+                while (j >= from && keys[j].compareTo(k) > 0) {
+                    keys[j + 1] = keys[j];
+                    items[j + 1] = items[j];
+                    j--;
+                }
+                keys[j + 1] = k;
+                items[j + 1] = item;
+            }
+        }
+
+        @Override
+        void merge(int from, int mid, int to) {
+            if (keys[mid - 1].compareTo(keys[mid]) <= 0) {
+                return; // already in order
+            }
+            int s = from >>> 1; // start of this range's share of the scratch
+            int n = mid - from;
+            System.arraycopy(keys, from, keyScratch, s, n);
+            System.arraycopy(items, from, itemScratch, s, n);
+            int i = s, iEnd = s + n, j = mid, k = from;
+            while (i < iEnd && j < to) {
+                if (keyScratch[i].compareTo(keys[j]) <= 0) {
+                    keys[k] = keyScratch[i];
+                    items[k++] = itemScratch[i++];
+                } else {
+                    keys[k] = keys[j];
+                    items[k++] = items[j++];
+                }
+            }
+            // Whatever remains of the right half is already in place
+            System.arraycopy(keyScratch, i, keys, k, iEnd - i);
+            System.arraycopy(itemScratch, i, items, k, iEnd - i);
+        }
+    }
+
+    private static final class DoubleKeys extends Run {
+        private final double[] keys;
+        private final double[] keyScratch;
+
+        @SuppressWarnings("unchecked")
+        DoubleKeys(Object[] items, ToDoubleFunction<?> keyFunction) {
+            super(items);
+            ToDoubleFunction<Object> key = (ToDoubleFunction<Object>) keyFunction;
+            keys = new double[items.length];
+            for (int i = 0; i < items.length; i++) {
+                keys[i] = key.applyAsDouble(items[i]);
+            }
+            keyScratch = new double[itemScratch.length];
+        }
+
+        @Override
+        void insertionSort(int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                double k = keys[i];
+                Object item = items[i];
+                int j = i - 1;
+                while (j >= from && keys[j] < k) {
+                    keys[j + 1] = keys[j];
+                    items[j + 1] = items[j];
+                    j--;
+                }
+                keys[j + 1] = k;
+                items[j + 1] = item;
+            }
+        }
+
+        @Override
+        void merge(int from, int mid, int to) {
+            if (keys[mid - 1] >= keys[mid]) {
+                return; // already in order
+            }
+            int s = from >>> 1; // start of this range's share of the scratch
+            int n = mid - from;
+            System.arraycopy(keys, from, keyScratch, s, n);
+            System.arraycopy(items, from, itemScratch, s, n);
+            int i = s, iEnd = s + n, j = mid, k = from;
+            while (i < iEnd && j < to) {
+                if (keyScratch[i] >= keys[j]) {
+                    keys[k] = keyScratch[i];
+                    items[k++] = itemScratch[i++];
+                } else {
+                    keys[k] = keys[j];
+                    items[k++] = items[j++];
+                }
+            }
+            System.arraycopy(keyScratch, i, keys, k, iEnd - i);
+            System.arraycopy(itemScratch, i, items, k, iEnd - i);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Natural-key fingerprints for deduplicating patients
+ */
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identifies a patient by the values of some columns instead of the
+ * generated ID, by default name + age + hospital + date of admission.
+ * The values are hashed into a 64-bit fingerprint, so an index of known
+ * patients holds one long per patient instead of the key strings. Two
+ * different keys collide with probability about n / 2^64, which is
+ * negligible for any realistic number of patients.
+ */
+public class NaturalKey {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final CsvSchema.Column[] columns;
+
+    /**
+     * @throws IllegalArgumentException for columns not stored on a patient
+     */
+    public NaturalKey(List<CsvSchema.Column> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("A natural key needs at least one column");
+        }
+        for (CsvSchema.Column column : columns) {
+            if (column == CsvSchema.Column.BILLING_AMOUNT) {
+                throw new IllegalArgumentException("Column is not stored on the patient: " + column.getHeader());
+            }
+        }
+        this.columns = columns.toArray(new CsvSchema.Column[0]);
+    }
+
+    /**
+     * Gets the default key: name, age, hospital and date of admission.
+     */
+    public static NaturalKey defaultKey() {
+        return new NaturalKey(Arrays.asList(CsvSchema.Column.NAME, CsvSchema.Column.AGE,
+                CsvSchema.Column.HOSPITAL, CsvSchema.Column.DATE_OF_ADMISSION));
+    }
+
+    public List<CsvSchema.Column> getColumns() {
+        return Arrays.asList(columns);
+    }
+
+    public long fingerprint(Patient patient) {
+        return fingerprint(patient.getName(), patient.getAge(),
+                patient.hasClinicalAttributes() ? patient.getClinicalAttributes() : null);
+    }
+
+    public long fingerprint(PatientSpec spec) {
+        return fingerprint(spec.getName(), spec.getAge(),
+                spec.hasClinicalAttributes() ? spec.getClinicalAttributes() : null);
+    }
+
+    // FNV-1a over the key values, never 0 so it can be stored in a LongIntHashMap
+    private long fingerprint(String name, int age, ClinicalAttributes a) {
+        long h = FNV_OFFSET;
+        for (CsvSchema.Column column : columns) {
+            if (column == CsvSchema.Column.AGE) {
+                for (int shift = 0; shift < 32; shift += 8) {
+                    h = (h ^ ((age >>> shift) & 0xFF)) * FNV_PRIME;
+                }
+            } else {
+                String value = column == CsvSchema.Column.NAME ? name : attribute(a, column);
+                if (value == null) {
+                    h = (h ^ 0xFFFF) * FNV_PRIME; // distinct from an empty string
+                } else {
+                    for (int i = 0; i < value.length(); i++) {
+                        char c = value.charAt(i);
+                        h = (h ^ (c & 0xFF)) * FNV_PRIME;
+                        h = (h ^ (c >>> 8)) * FNV_PRIME;
+                    }
+                }
+            }
+            h = (h ^ 0x1F) * FNV_PRIME; // field separator
+        }
+        return h != 0 ? h : 1;
+    }
+
+    /**
+     * Keys over the same columns in the same order are equal, so they
+     * share an index.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof NaturalKey && Arrays.equals(columns, ((NaturalKey) o).columns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(columns);
+    }
+
+    private static String attribute(ClinicalAttributes a, CsvSchema.Column column) {
+        if (a == null) return null;
+        switch (column) {
+            case GENDER: return a.getGender();
+            case BLOOD_TYPE: return a.getBloodType();
+            case MEDICAL_CONDITION: return a.getDiagnosis();
+            case DATE_OF_ADMISSION: return a.getAdmissionDate();
+            case DOCTOR: return a.getDoctor();
+            case HOSPITAL: return a.getHospital();
+            case INSURANCE_PROVIDER: return a.getInsurance();
+            case ROOM_NUMBER: return a.getRoomNumber();
+            case ADMISSION_TYPE: return a.getAdmissionType();
+            case DISCHARGE_DATE: return a.getDischargeDate();
+            case MEDICATION: return a.getMedication();
+            case TEST_RESULTS: return a.getTestResults();
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,626 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Disk-backed B+ tree implementation for Patient storage
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Patient store for datasets larger than the heap.
+ *
+ * The index is a page-based B+ tree keyed by patient ID, stored in
+ * {@code patients.idx}. Leaves map each ID to the offset of the encoded
+ * record in the append-only {@code patients.dat} file. A bounded buffer
+ * pool keeps recently used index pages in memory, and a bounded LRU map
+ * keeps recently used patients as full objects. Cold patients are read
+ * from disk on demand.
+ *
+ * Patients returned by {@link #search(int)} are cached; changes made to them
+ * are written back when they are evicted or when the store is closed.
+ * An evicted patient that is still held elsewhere (by an appointment, a
+ * visit plan or the waiting list) is returned again by search instead of
+ * a fresh copy, see EvictedPatients. Patients returned by
+ * {@link #getAllPatients()} that were not in memory are read-only snapshots.
+ *
+ * Every B+ tree split writes the dirty index pages and the metadata page,
+ * so the index on disk is always a consistent tree. If the process dies,
+ * changes since the last split or flush may be lost, but the store still
+ * opens. The metadata records whether the store was closed cleanly; if
+ * not, the patient count is recounted from the leaves on open.
+ */
+public class PagedPatientStore implements PatientStore, Closeable {
+    private static final int PAGE_SIZE = 4096;
+    private static final int MAGIC = 0x50425431; // "PBT1"
+    private static final int CLEAN = 1; // metadata flag written by flush()
+    private static final byte LEAF = 0;
+    private static final byte INTERNAL = 1;
+    // type (1) + count (2) + next leaf (4)
+    private static final int HEADER_SIZE = 7;
+    // Leaf entry: key (4) + record offset (8)
+    private static final int LEAF_CAPACITY = (PAGE_SIZE - HEADER_SIZE) / 12;
+    // Internal node: first child (4) + (key (4) + child (4)) per entry
+    private static final int INTERNAL_CAPACITY = (PAGE_SIZE - HEADER_SIZE - 4) / 8;
+
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private final Map<Integer, Node> bufferPool;
+    private final LruCache<Integer, HotPatient> hotPatients;
+    private final EvictedPatients evicted;
+
+    private int rootPage;
+    private int pageCount;
+    private int size;
+    private boolean clean; // nothing changed since the last flush
+
+    /**
+     * Opens (or creates) a store in the given directory.
+     *
+     * @param bufferPoolPages maximum number of index pages kept in memory
+     * @param hotCapacity     maximum number of patients kept as full objects
+     */
+    public PagedPatientStore(Path directory, int bufferPoolPages, int hotCapacity) throws IOException {
+        Files.createDirectories(directory);
+        this.indexChannel = FileChannel.open(directory.resolve("patients.idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.dataChannel = FileChannel.open(directory.resolve("patients.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        final int maxPages = Math.max(bufferPoolPages, 8);
+        this.bufferPool = new LinkedHashMap<Integer, Node>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                if (size() <= maxPages) return false;
+                if (eldest.getValue().dirty) {
+                    writePage(eldest.getValue());
+                }
+                return true;
+            }
+        };
+        this.evicted = new EvictedPatients();
+        this.hotPatients = new LruCache<>(hotCapacity, (id, hot) ->
+                evicted.add(hot.patient, writeBack(hot.patient, hot.checksum)));
+
+        if (indexChannel.size() == 0) {
+            pageCount = 1; // page 0 holds the metadata
+            Node root = allocate(true);
+            rootPage = root.pageNo;
+            size = 0;
+            clean = true;
+            writeDirtyPages();
+        } else {
+            readMeta();
+            if (!clean) {
+                size = countEntries();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void insert(Patient patient) {
+        int key = patient.getPatientID();
+        Node leaf = findLeaf(key);
+        if (indexOf(leaf, key) >= 0) {
+            return; // Patient already exists
+        }
+        markChanged();
+        byte[] record = PatientCodec.encode(patient);
+        long offset = appendRecord(record);
+        int pagesBefore = pageCount;
+        Split split = insertInto(rootPage, key, offset);
+        if (split != null) {
+            Node newRoot = allocate(false);
+            newRoot.keys[0] = split.key;
+            newRoot.children[0] = rootPage;
+            newRoot.children[1] = split.rightPage;
+            newRoot.count = 1;
+            rootPage = newRoot.pageNo;
+        }
+        size++;
+        if (pageCount != pagesBefore) {
+            writeDirtyPages(); // a node was split
+        }
+        hotPatients.put(key, new HotPatient(patient, checksum(record)));
+    }
+
+    @Override
+    public synchronized Patient search(int patientID) {
+        HotPatient hot = hotPatients.get(patientID);
+        if (hot != null) {
+            return hot.patient;
+        }
+        EvictedPatients.Entry inUse = evicted.take(patientID);
+        Patient held = inUse != null ? inUse.get() : null;
+        if (held != null) {
+            hotPatients.put(patientID, new HotPatient(held, inUse.getChecksum()));
+            return held;
+        }
+        Node leaf = findLeaf(patientID);
+        int i = indexOf(leaf, patientID);
+        if (i < 0) {
+            return null;
+        }
+        byte[] record = readRecord(leaf.offsets[i]);
+        Patient patient = PatientCodec.decode(record);
+        hotPatients.put(patientID, new HotPatient(patient, checksum(record)));
+        return patient;
+    }
+
+    /**
+     * Reads a patient that is not in memory from disk without caching it.
+     */
+    @Override
+    public synchronized Patient peek(int patientID) {
+        HotPatient hot = hotPatients.peek(patientID);
+        if (hot != null) {
+            return hot.patient;
+        }
+        Patient held = evicted.peek(patientID);
+        if (held != null) {
+            return held;
+        }
+        Node leaf = findLeaf(patientID);
+        int i = indexOf(leaf, patientID);
+        return i < 0 ? null : PatientCodec.decode(readRecord(leaf.offsets[i]));
+    }
+
+    @Override
+    public synchronized List<Patient> getAllPatients() {
+        List<Patient> patients = new ArrayList<>(size);
+        Node node = page(rootPage);
+        while (!node.leaf) {
+            node = page(node.children[0]);
+        }
+        while (true) {
+            int[] keys = node.keys.clone();
+            long[] offsets = node.offsets.clone();
+            int count = node.count;
+            int next = node.next;
+            for (int i = 0; i < count; i++) {
+                HotPatient hot = hotPatients.peek(keys[i]);
+                Patient inUse = hot != null ? hot.patient : evicted.peek(keys[i]);
+                patients.add(inUse != null ? inUse : PatientCodec.decode(readRecord(offsets[i])));
+            }
+            if (next < 0) break;
+            node = page(next);
+        }
+        return patients;
+    }
+
+    /**
+     * Walks the leaf keys, so no patient record is read.
+     */
+    @Override
+    public synchronized void forEachPatientID(IntConsumer action) {
+        Node node = page(rootPage);
+        while (!node.leaf) {
+            node = page(node.children[0]);
+        }
+        while (true) {
+            for (int i = 0; i < node.count; i++) {
+                action.accept(node.keys[i]);
+            }
+            if (node.next < 0) break;
+            node = page(node.next);
+        }
+    }
+
+    /**
+     * Deletes a patient from the index. The old record stays in the data
+     * file, and underfull leaves are not merged.
+     */
+    @Override
+    public synchronized void delete(int patientID) {
+        hotPatients.remove(patientID);
+        evicted.remove(patientID);
+        Node leaf = findLeaf(patientID);
+        int i = indexOf(leaf, patientID);
+        if (i < 0) {
+            return;
+        }
+        markChanged();
+        System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.count - i - 1);
+        System.arraycopy(leaf.offsets, i + 1, leaf.offsets, i, leaf.count - i - 1);
+        leaf.count--;
+        markDirty(leaf);
+        size--;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized LruCache.CacheStats getCacheStats() {
+        return hotPatients.getStats();
+    }
+
+    /**
+     * Writes cached patients and dirty pages to disk.
+     */
+    public synchronized void flush() throws IOException {
+        for (HotPatient hot : hotPatients.values()) {
+            hot.checksum = writeBack(hot.patient, hot.checksum);
+        }
+        for (EvictedPatients.Entry entry : evicted.alive()) {
+            Patient patient = entry.get();
+            if (patient != null) {
+                entry.setChecksum(writeBack(patient, entry.getChecksum()));
+            }
+        }
+        dataChannel.force(false);
+        clean = true;
+        writeDirtyPages();
+        indexChannel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        indexChannel.close();
+        dataChannel.close();
+    }
+
+    // Marks the store as not cleanly closed before its first change after a flush
+    private void markChanged() {
+        if (clean) {
+            clean = false;
+            try {
+                writeMeta();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Writes every dirty index page, then the metadata that points into them
+    private void writeDirtyPages() {
+        for (Node node : new ArrayList<>(bufferPool.values())) {
+            if (node.dirty) {
+                writePage(node);
+            }
+        }
+        try {
+            writeMeta();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Counts the leaf entries, for a store that was not closed cleanly
+    private int countEntries() {
+        Node node = page(rootPage);
+        while (!node.leaf) {
+            node = page(node.children[0]);
+        }
+        int count = 0;
+        while (true) {
+            count += node.count;
+            if (node.next < 0) break;
+            node = page(node.next);
+        }
+        return count;
+    }
+
+    // B+ tree operations
+
+    private Split insertInto(int pageNo, int key, long offset) {
+        Node node = page(pageNo);
+        if (node.leaf) {
+            int pos = lowerBound(node, key);
+            System.arraycopy(node.keys, pos, node.keys, pos + 1, node.count - pos);
+            System.arraycopy(node.offsets, pos, node.offsets, pos + 1, node.count - pos);
+            node.keys[pos] = key;
+            node.offsets[pos] = offset;
+            node.count++;
+            markDirty(node);
+            return node.count > LEAF_CAPACITY ? splitLeaf(node) : null;
+        }
+
+        int idx = childIndex(node, key);
+        Split split = insertInto(node.children[idx], key, offset);
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(node.keys, idx, node.keys, idx + 1, node.count - idx);
+        System.arraycopy(node.children, idx + 1, node.children, idx + 2, node.count - idx);
+        node.keys[idx] = split.key;
+        node.children[idx + 1] = split.rightPage;
+        node.count++;
+        markDirty(node);
+        return node.count > INTERNAL_CAPACITY ? splitInternal(node) : null;
+    }
+
+    private Split splitLeaf(Node node) {
+        Node right = allocate(true);
+        int mid = node.count / 2;
+        int moved = node.count - mid;
+        System.arraycopy(node.keys, mid, right.keys, 0, moved);
+        System.arraycopy(node.offsets, mid, right.offsets, 0, moved);
+        right.count = moved;
+        right.next = node.next;
+        node.count = mid;
+        node.next = right.pageNo;
+        markDirty(node);
+        markDirty(right);
+        return new Split(right.keys[0], right.pageNo);
+    }
+
+    private Split splitInternal(Node node) {
+        Node right = allocate(false);
+        int mid = node.count / 2;
+        int separator = node.keys[mid];
+        int moved = node.count - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, moved);
+        System.arraycopy(node.children, mid + 1, right.children, 0, moved + 1);
+        right.count = moved;
+        node.count = mid;
+        markDirty(node);
+        markDirty(right);
+        return new Split(separator, right.pageNo);
+    }
+
+    private Node findLeaf(int key) {
+        Node node = page(rootPage);
+        while (!node.leaf) {
+            node = page(node.children[childIndex(node, key)]);
+        }
+        return node;
+    }
+
+    // Index of the child to follow: number of separator keys <= key
+    private static int childIndex(Node node, int key) {
+        int lo = 0, hi = node.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (node.keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int lowerBound(Node node, int key) {
+        int lo = 0, hi = node.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (node.keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int indexOf(Node leaf, int key) {
+        int pos = lowerBound(leaf, key);
+        return pos < leaf.count && leaf.keys[pos] == key ? pos : -1;
+    }
+
+    // Buffer pool
+
+    private Node page(int pageNo) {
+        Node node = bufferPool.get(pageNo);
+        if (node == null) {
+            node = readPage(pageNo);
+            bufferPool.put(pageNo, node);
+        }
+        return node;
+    }
+
+    private Node allocate(boolean leaf) {
+        Node node = new Node(pageCount++, leaf);
+        markDirty(node);
+        return node;
+    }
+
+    // Re-registers the node so that a page evicted mid-operation is written again
+    private void markDirty(Node node) {
+        node.dirty = true;
+        bufferPool.put(node.pageNo, node);
+    }
+
+    private Node readPage(int pageNo) {
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(PAGE_SIZE);
+            readFully(indexChannel, buf, (long) pageNo * PAGE_SIZE);
+            buf.flip();
+            Node node = new Node(pageNo, buf.get() == LEAF);
+            node.count = buf.getShort() & 0xFFFF;
+            node.next = buf.getInt();
+            if (node.leaf) {
+                for (int i = 0; i < node.count; i++) {
+                    node.keys[i] = buf.getInt();
+                    node.offsets[i] = buf.getLong();
+                }
+            } else {
+                node.children[0] = buf.getInt();
+                for (int i = 0; i < node.count; i++) {
+                    node.keys[i] = buf.getInt();
+                    node.children[i + 1] = buf.getInt();
+                }
+            }
+            return node;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writePage(Node node) {
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(PAGE_SIZE);
+            buf.put(node.leaf ? LEAF : INTERNAL);
+            buf.putShort((short) node.count);
+            buf.putInt(node.next);
+            if (node.leaf) {
+                for (int i = 0; i < node.count; i++) {
+                    buf.putInt(node.keys[i]);
+                    buf.putLong(node.offsets[i]);
+                }
+            } else {
+                buf.putInt(node.children[0]);
+                for (int i = 0; i < node.count; i++) {
+                    buf.putInt(node.keys[i]);
+                    buf.putInt(node.children[i + 1]);
+                }
+            }
+            buf.clear();
+            writeFully(indexChannel, buf, (long) node.pageNo * PAGE_SIZE);
+            node.dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readMeta() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(20);
+        readFully(indexChannel, buf, 0);
+        buf.flip();
+        if (buf.getInt() != MAGIC) {
+            throw new IOException("Not a patient index file");
+        }
+        rootPage = buf.getInt();
+        pageCount = buf.getInt();
+        size = buf.getInt();
+        clean = buf.getInt() == CLEAN;
+    }
+
+    private void writeMeta() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(20);
+        buf.putInt(MAGIC).putInt(rootPage).putInt(pageCount).putInt(size).putInt(clean ? CLEAN : 0);
+        buf.flip();
+        writeFully(indexChannel, buf, 0);
+    }
+
+    // Patient records
+
+    // Appends the patient's record if it changed; returns the checksum of the stored record
+    private long writeBack(Patient patient, long storedChecksum) {
+        byte[] record = PatientCodec.encode(patient);
+        long sum = checksum(record);
+        if (sum == storedChecksum) {
+            return storedChecksum; // unchanged since it was loaded
+        }
+        Node leaf = findLeaf(patient.getPatientID());
+        int i = indexOf(leaf, patient.getPatientID());
+        if (i < 0) {
+            return storedChecksum; // deleted or re-keyed
+        }
+        markChanged();
+        leaf.offsets[i] = appendRecord(record);
+        markDirty(leaf);
+        return sum;
+    }
+
+    private long appendRecord(byte[] record) {
+        try {
+            long offset = dataChannel.size();
+            ByteBuffer buf = ByteBuffer.allocate(4 + record.length);
+            buf.putInt(record.length).put(record);
+            buf.flip();
+            writeFully(dataChannel, buf, offset);
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] readRecord(long offset) {
+        try {
+            ByteBuffer len = ByteBuffer.allocate(4);
+            readFully(dataChannel, len, offset);
+            len.flip();
+            ByteBuffer buf = ByteBuffer.allocate(len.getInt());
+            readFully(dataChannel, buf, offset + 4);
+            return buf.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf, position + buf.position());
+        }
+    }
+
+    /**
+     * In-memory copy of an index page.
+     */
+    private static class Node {
+        private final int pageNo;
+        private final boolean leaf;
+        private final int[] keys;
+        private final long[] offsets;
+        private final int[] children;
+        private int count;
+        private int next = -1;
+        private boolean dirty;
+
+        Node(int pageNo, boolean leaf) {
+            this.pageNo = pageNo;
+            this.leaf = leaf;
+            // One spare slot so a node can overflow before it is split
+            this.keys = new int[(leaf ? LEAF_CAPACITY : INTERNAL_CAPACITY) + 1];
+            this.offsets = leaf ? new long[LEAF_CAPACITY + 1] : null;
+            this.children = leaf ? null : new int[INTERNAL_CAPACITY + 2];
+        }
+    }
+
+    private static class Split {
+        private final int key;
+        private final int rightPage;
+
+        Split(int key, int rightPage) {
+            this.key = key;
+            this.rightPage = rightPage;
+        }
+    }
+
+    private static class HotPatient {
+        private final Patient patient;
+        private long checksum;
+
+        HotPatient(Patient patient, long checksum) {
+            this.patient = patient;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -3,20 +3,27 @@
  * Course: Data Structures
  */
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a patient in the hospital system.
  * Patient data is stored in a Binary Search Tree structure.
+ *
+ * To keep large imports small on the heap, the history lists and clinical
+ * attributes are only allocated on first use. Medical history notes and
+ * visit records are close to unique per patient, so they are kept as
+ * plain strings in small CompactStringLists. Code that only reads a
+ * patient should use the read... accessors, which do not allocate them.
  */
 public class Patient implements Comparable<Patient> {
     private int patientID;
     private String name;
     private int age;
     private String contactInfo;
-    private List<String> medicalHistory;
-    private List<String> visitRecords;
+    private CompactStringList medicalHistory;   // null until first used
+    private CompactStringList visitRecords;     // null until first used
+    private ClinicalAttributes clinicalAttributes; // null until first used
     
     // BST pointers
     private Patient left;
@@ -27,8 +34,9 @@ public class Patient implements Comparable<Patient> {
         this.name = name;
         this.age = age;
         this.contactInfo = contactInfo;
-        this.medicalHistory = new ArrayList<>();
-        this.visitRecords = new ArrayList<>();
+        this.medicalHistory = null;
+        this.visitRecords = null;
+        this.clinicalAttributes = null;
         this.left = null;
         this.right = null;
     }
@@ -67,13 +75,66 @@ public class Patient implements Comparable<Patient> {
     }
     
     public List<String> getMedicalHistory() {
+        if (medicalHistory == null) {
+            medicalHistory = new CompactStringList();
+        }
         return medicalHistory;
     }
     
     public List<String> getVisitRecords() {
+        if (visitRecords == null) {
+            visitRecords = new CompactStringList();
+        }
         return visitRecords;
     }
     
+    public ClinicalAttributes getClinicalAttributes() {
+        if (clinicalAttributes == null) {
+            clinicalAttributes = new ClinicalAttributes();
+        }
+        return clinicalAttributes;
+    }
+    
+    /**
+     * Gets a read-only view of the medical history, without allocating it.
+     */
+    public List<String> readMedicalHistory() {
+        return medicalHistory != null ? Collections.unmodifiableList(medicalHistory) : Collections.emptyList();
+    }
+    
+    /**
+     * Gets a read-only view of the visit records, without allocating them.
+     */
+    public List<String> readVisitRecords() {
+        return visitRecords != null ? Collections.unmodifiableList(visitRecords) : Collections.emptyList();
+    }
+    
+    /**
+     * Gets the clinical attributes for reading, or a shared read-only empty
+     * set if none were allocated.
+     */
+    public ClinicalAttributes readClinicalAttributes() {
+        return clinicalAttributes != null ? clinicalAttributes : ClinicalAttributes.EMPTY;
+    }
+    
+    /**
+     * Checks whether clinical attributes were allocated, without allocating them.
+     */
+    public boolean hasClinicalAttributes() {
+        return clinicalAttributes != null;
+    }
+    
+    public void setClinicalAttributes(ClinicalAttributes clinicalAttributes) {
+        this.clinicalAttributes = clinicalAttributes;
+    }
+    
+    /**
+     * Gets the diagnosis without allocating clinical attributes.
+     */
+    public String getDiagnosis() {
+        return clinicalAttributes != null ? clinicalAttributes.getDiagnosis() : null;
+    }
+    
     public Patient getLeft() {
         return left;
     }
@@ -101,7 +162,7 @@ public class Patient implements Comparable<Patient> {
      * Adds a visit record to the patient's history.
      */
     public void addVisitRecord(String visitRecord) {
-        this.visitRecords.add(visitRecord);
+        getVisitRecords().add(visitRecord);
     }
     
     /**
@@ -113,8 +174,11 @@ public class Patient implements Comparable<Patient> {
         info.append("Name: ").append(name).append("\n");
         info.append("Age: ").append(age).append("\n");
         info.append("Contact Info: ").append(contactInfo).append("\n");
-        info.append("Medical History: ").append(medicalHistory).append("\n");
-        info.append("Visit Records: ").append(visitRecords).append("\n");
+        if (clinicalAttributes != null && !clinicalAttributes.isEmpty()) {
+            info.append("Clinical Attributes: ").append(clinicalAttributes).append("\n");
+        }
+        info.append("Medical History: ").append(readMedicalHistory()).append("\n");
+        info.append("Visit Records: ").append(readVisitRecords()).append("\n");
         return info.toString();
     }
     
@@ -6,42 +6,142 @@
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Binary Search Tree for storing and searching patients efficiently.
+ *
+ * The tree is kept balanced the scapegoat way: when an insert lands deeper
+ * than log base 4/3 of the size, the nearest ancestor whose subtree is
+ * lopsided (one child holding more than 3/4 of it) is rebuilt perfectly
+ * balanced. Inserts cost O(log n) amortized, even for ascending IDs.
  */
-public class PatientBST {
+public class PatientBST implements PatientStore {
+    // A child subtree may hold at most this share of its parent's subtree
+    private static final double ALPHA = 0.75;
+    
     private Patient root;
+    private int size;
+    private int maxSize; // largest size since the whole tree was last rebuilt
+    private Patient[] path; // ancestors of the node being inserted
     
     public PatientBST() {
         this.root = null;
+        this.size = 0;
+        this.maxSize = 0;
+        this.path = new Patient[64];
     }
     
     /**
-     * Inserts a patient into the BST.
+     * Inserts a patient into the BST. Duplicate IDs are ignored.
      */
+    @Override
     public void insert(Patient patient) {
-        root = insertRec(root, patient);
+        if (root == null) {
+            root = patient;
+            size = maxSize = 1;
+            return;
+        }
+        int id = patient.getPatientID();
+        int depth = 0;
+        Patient node = root;
+        while (node != null) {
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth++] = node;
+            if (id < node.getPatientID()) {
+                node = node.getLeft();
+            } else if (id > node.getPatientID()) {
+                node = node.getRight();
+            } else {
+                return;
+            }
+        }
+        Patient parent = path[depth - 1];
+        if (id < parent.getPatientID()) {
+            parent.setLeft(patient);
+        } else {
+            parent.setRight(patient);
+        }
+        size++;
+        maxSize = Math.max(maxSize, size);
+        if (depth > maxDepth(size)) {
+            rebuildScapegoat(patient, depth);
+        }
     }
     
-    private Patient insertRec(Patient root, Patient patient) {
-        if (root == null) {
-            return patient;
+    // Depth an insert may reach before some ancestor must be out of balance
+    private static int maxDepth(int n) {
+        return (int) (Math.log(n) / Math.log(1 / ALPHA));
+    }
+    
+    // Walks up from the new node to the first ancestor that is out of balance and rebuilds its subtree
+    private void rebuildScapegoat(Patient inserted, int depth) {
+        Patient child = inserted;
+        int childSize = 1;
+        for (int i = depth - 1; i >= 0; i--) {
+            Patient node = path[i];
+            Patient sibling = node.getLeft() == child ? node.getRight() : node.getLeft();
+            int nodeSize = childSize + 1 + countNodes(sibling);
+            if (childSize > ALPHA * nodeSize) {
+                Patient rebuilt = rebuild(node, nodeSize);
+                if (i == 0) {
+                    root = rebuilt;
+                } else if (path[i - 1].getLeft() == node) {
+                    path[i - 1].setLeft(rebuilt);
+                } else {
+                    path[i - 1].setRight(rebuilt);
+                }
+                break;
+            }
+            child = node;
+            childSize = nodeSize;
         }
-        
-        if (patient.getPatientID() < root.getPatientID()) {
-            root.setLeft(insertRec(root.getLeft(), patient));
-        } else if (patient.getPatientID() > root.getPatientID()) {
-            root.setRight(insertRec(root.getRight(), patient));
+        Arrays.fill(path, 0, depth, null);
+    }
+    
+    /**
+     * Inserts a sorted batch. Each patient is inserted on its own, which
+     * costs O(log n) amortized, so a batch never touches the patients
+     * outside the subtrees it unbalances.
+     */
+    @Override
+    public void insertAll(List<Patient> patients) {
+        for (Patient patient : patients) {
+            insert(patient);
         }
-        
-        return root;
+    }
+    
+    private Patient rebuild(Patient subtree, int count) {
+        List<Patient> sorted = new ArrayList<>(count);
+        inOrder(subtree, sorted);
+        return buildBalanced(sorted, 0, sorted.size() - 1);
+    }
+    
+    private Patient buildBalanced(List<Patient> sorted, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        Patient node = sorted.get(mid);
+        node.setLeft(buildBalanced(sorted, lo, mid - 1));
+        node.setRight(buildBalanced(sorted, mid + 1, hi));
+        return node;
+    }
+    
+    private static int countNodes(Patient subtree) {
+        if (subtree == null) {
+            return 0;
+        }
+        return 1 + countNodes(subtree.getLeft()) + countNodes(subtree.getRight());
     }
     
     /**
      * Searches for a patient by ID.
      */
+    @Override
     public Patient search(int patientID) {
         return searchRec(root, patientID);
     }
@@ -61,11 +161,17 @@ public class PatientBST {
     /**
      * Gets all patients in the BST (in-order traversal).
      */
+    @Override
     public List<Patient> getAllPatients() {
-        List<Patient> patients = new ArrayList<>();
+        List<Patient> patients = new ArrayList<>(size);
+        inOrder(root, patients);
+        return patients;
+    }
+    
+    private static void inOrder(Patient subtree, List<Patient> patients) {
         // Iterative in-order traversal to avoid deep recursion stack overflows
         java.util.Deque<Patient> stack = new java.util.ArrayDeque<>();
-        Patient current = root;
+        Patient current = subtree;
         while (current != null || !stack.isEmpty()) {
             while (current != null) {
                 stack.push(current);
@@ -75,14 +181,23 @@ public class PatientBST {
             patients.add(node);
             current = node.getRight();
         }
-        return patients;
     }
     
     /**
      * Deletes a patient from the BST.
      */
+    @Override
     public void delete(int patientID) {
+        if (search(patientID) == null) {
+            return;
+        }
         root = deleteRec(root, patientID);
+        size--;
+        if (size < ALPHA * maxSize) {
+            // Enough deletes to lose the depth bound: rebuild everything
+            root = rebuild(root, size);
+            maxSize = size;
+        }
     }
     
     private Patient deleteRec(Patient root, int patientID) {
@@ -119,6 +234,7 @@ public class PatientBST {
         return root;
     }
     
+    @Override
     public boolean isEmpty() {
         return root == null;
     }
@@ -0,0 +1,144 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Binary encoding of patient records for off-heap storage
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Converts a Patient to and from a compact byte array.
+ * BST pointers are not part of the record.
+ */
+public class PatientCodec {
+    // Leading byte of the attributes block
+    private static final int NO_ATTRIBUTES = 0;
+    private static final int ATTRIBUTES_V1 = 1; // without admission date
+    private static final int ATTRIBUTES_V2 = 2;
+
+    private PatientCodec() {
+    }
+
+    /**
+     * Encodes a patient into a byte array.
+     */
+    public static byte[] encode(Patient patient) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(patient.getPatientID());
+            writeString(out, patient.getName());
+            out.writeInt(patient.getAge());
+            writeString(out, patient.getContactInfo());
+            writeList(out, patient.readMedicalHistory());
+            writeList(out, patient.readVisitRecords());
+            writeAttributes(out, patient.readClinicalAttributes());
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a patient previously produced by {@link #encode(Patient)}.
+     */
+    public static Patient decode(byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            int patientID = in.readInt();
+            String name = readString(in);
+            int age = in.readInt();
+            String contactInfo = readString(in);
+            Patient patient = new Patient(patientID, name, age, contactInfo);
+            readList(in, patient, true);
+            readList(in, patient, false);
+            readAttributes(in, patient);
+            return patient;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeAttributes(DataOutputStream out, ClinicalAttributes a) throws IOException {
+        if (a == null || a.isEmpty()) {
+            out.writeByte(NO_ATTRIBUTES);
+            return;
+        }
+        out.writeByte(ATTRIBUTES_V2);
+        writeString(out, a.getGender());
+        writeString(out, a.getBloodType());
+        writeString(out, a.getDiagnosis());
+        writeString(out, a.getDoctor());
+        writeString(out, a.getHospital());
+        writeString(out, a.getInsurance());
+        writeString(out, a.getRoomNumber());
+        writeString(out, a.getAdmissionType());
+        writeString(out, a.getDischargeDate());
+        writeString(out, a.getMedication());
+        writeString(out, a.getTestResults());
+        writeString(out, a.getAdmissionDate()); // added in V2, so kept last
+    }
+
+    private static void readAttributes(DataInputStream in, Patient patient) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version == NO_ATTRIBUTES) return;
+        ClinicalAttributes a = patient.getClinicalAttributes();
+        a.setGender(readString(in));
+        a.setBloodType(readString(in));
+        a.setDiagnosis(readString(in));
+        a.setDoctor(readString(in));
+        a.setHospital(readString(in));
+        a.setInsurance(readString(in));
+        a.setRoomNumber(readString(in));
+        a.setAdmissionType(readString(in));
+        a.setDischargeDate(readString(in));
+        a.setMedication(readString(in));
+        a.setTestResults(readString(in));
+        if (version >= ATTRIBUTES_V2) {
+            a.setAdmissionDate(readString(in));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String s : list) {
+            writeString(out, s);
+        }
+    }
+
+    private static void readList(DataInputStream in, Patient patient, boolean history) throws IOException {
+        int n = in.readInt();
+        if (n == 0) return; // leave the list unallocated
+        List<String> target = history ? patient.getMedicalHistory() : patient.getVisitRecords();
+        for (int i = 0; i < n; i++) {
+            target.add(readString(in));
+        }
+    }
+}
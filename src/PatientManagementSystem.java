@@ -3,37 +3,90 @@
  * Course: Data Structures
  */
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
 
 /**
  * Main system class managing overall operations and interactions
  * between Patient, Appointment, WaitingList, Billing, and ReportGenerator.
  */
 public class PatientManagementSystem {
-    private PatientBST patientList;
+    private PatientStore patientList;
+    private IdAllocator patientIDs;
     private Queue<Appointment> appointmentQueue;
     private WaitingList waitingList;
     private List<Billing> billingRecords;
+    private Map<Integer, Billing> billingByPatient;
+    private RevenueTotals revenueTotals;
+    private TimeAnalytics analytics;
+    private ReportCache reportCache;
+    private StringDictionary dictionary; // shared copies of repeated clinical values
+    private Map<NaturalKey, LongIntHashMap> naturalKeyIndexes; // fingerprint -> patient ID, see findPatientByNaturalKey
+    // Change counters checked by the report cache; billing changes are counted by revenueTotals
+    private long patientsVersion;
+    private long appointmentsVersion;
+    private long visitPlansVersion;
     private ReportGenerator reportGenerator;
     private int nextAppointmentID;
     
     // Visit Plans
     private List<VisitPlan> visitPlans;
+    private Map<Integer, VisitPlan> visitPlansByID;
+    private Map<Integer, List<VisitPlan>> visitPlansByPatient;
+    private Map<Integer, VisitPlan> latestClinicalPlans; // per patient, see updateClinicalSummary
     private int nextVisitPlanID;
     
     public PatientManagementSystem() {
-        this.patientList = new PatientBST();
+        this(new PatientBST());
+    }
+    
+    /**
+     * Creates a system backed by the given patient store,
+     * e.g. a PagedPatientStore for datasets larger than the heap.
+     * Patients already in the store get an empty billing record, since
+     * billing is not kept in the store.
+     */
+    public PatientManagementSystem(PatientStore patientStore) {
+        this.patientList = patientStore;
+        this.patientIDs = new IdAllocator();
         this.appointmentQueue = new LinkedList<>();
         this.waitingList = new WaitingList();
         this.billingRecords = new ArrayList<>();
+        this.billingByPatient = new HashMap<>();
+        this.revenueTotals = new RevenueTotals();
+        this.analytics = new TimeAnalytics();
+        this.naturalKeyIndexes = new HashMap<>();
+        this.reportCache = new ReportCache();
+        this.dictionary = new StringDictionary();
         this.reportGenerator = new ReportGenerator();
         this.nextAppointmentID = 1;
+        patientStore.forEachPatientID(patientID -> {
+            if (patientID >= 0) {
+                patientIDs.markUsed(patientID);
+            }
+            addBillingRecord(new Billing(patientID));
+        });
         
         // Initialize visit plans
         this.visitPlans = new ArrayList<>();
+        this.visitPlansByID = new HashMap<>();
+        this.visitPlansByPatient = new HashMap<>();
+        this.latestClinicalPlans = new HashMap<>();
         this.nextVisitPlanID = 1;
     }
     
@@ -46,17 +99,259 @@ public class PatientManagementSystem {
         }
         Patient patient = new Patient(patientID, name, age, contactInfo);
         patientList.insert(patient);
+        indexNaturalKeys(patient);
+        if (patientID >= 0) {
+            patientIDs.markUsed(patientID); // only non-negative IDs are tracked
+        }
         // Create billing record for new patient
-        billingRecords.add(new Billing(patientID));
+        addBillingRecord(new Billing(patientID));
+        patientsVersion++;
         return true;
     }
     
+    /**
+     * Adds many patients in one operation. The batch is validated and
+     * deduplicated in a single pass, the new patients are inserted into
+     * the patient store together, and their billing records are created
+     * with the initial amounts. The patients take over the specs' clinical
+     * attributes objects.
+     *
+     * @return one result per spec, in iteration order
+     */
+    public List<PatientSpec.Result> addPatientsBatch(Collection<PatientSpec> specs) {
+        List<PatientSpec.Result> results = new ArrayList<>(specs.size());
+        List<Patient> created = new ArrayList<>(specs.size());
+        Set<Integer> batchIDs = new HashSet<>();
+        boolean ascending = true;
+        int lastID = Integer.MIN_VALUE;
+        for (PatientSpec spec : specs) {
+            if (!spec.isValid()) {
+                results.add(PatientSpec.Result.INVALID);
+                continue;
+            }
+            int patientID = spec.getPatientID();
+            if (!batchIDs.add(patientID) || patientList.search(patientID) != null) {
+                results.add(PatientSpec.Result.DUPLICATE);
+                continue;
+            }
+            Patient patient = new Patient(patientID, spec.getName(), spec.getAge(), spec.getContactInfo());
+            if (spec.hasClinicalAttributes()) {
+                patient.setClinicalAttributes(internAttributes(spec));
+                patient.setContactInfo(sharedContact(spec));
+            }
+            for (String record : spec.getVisitRecords()) {
+                patient.addVisitRecord(record);
+            }
+            Billing billing = new Billing(patientID);
+            billing.generateBill(spec.getBillingAmount());
+            addBillingRecord(billing);
+            if (spec.getBillingAmount() != 0) {
+                // Imported bills are dated by the admission
+                String admitted = spec.hasClinicalAttributes() ? spec.getClinicalAttributes().getAdmissionDate() : null;
+                analytics.recordBill(admitted, spec.getBillingAmount());
+            }
+            created.add(patient);
+            indexNaturalKeys(patient);
+            if (patientID >= 0) {
+                patientIDs.markUsed(patientID);
+            }
+            results.add(PatientSpec.Result.CREATED);
+            ascending &= patientID > lastID;
+            lastID = patientID;
+        }
+        if (!ascending) {
+            created.sort(null);
+        }
+        patientList.insertAll(created);
+        if (!created.isEmpty()) {
+            patientsVersion++;
+        }
+        return results;
+    }
+    
+    /**
+     * Updates the patient with the spec's ID in place: name, age, contact,
+     * clinical attributes if the spec has any, and visit records the patient
+     * does not have yet. Billing is left unchanged.
+     *
+     * @return false if there is no such patient or the spec is invalid
+     */
+    public boolean updatePatient(PatientSpec spec) {
+        Patient patient = findPatient(spec.getPatientID());
+        if (patient == null || !spec.isValid()) {
+            return false;
+        }
+        unindexNaturalKeys(patient);
+        patient.setName(spec.getName());
+        patient.setAge(spec.getAge());
+        patient.setContactInfo(spec.getContactInfo());
+        if (spec.hasClinicalAttributes()) {
+            patient.setClinicalAttributes(internAttributes(spec));
+            patient.setContactInfo(sharedContact(spec));
+        }
+        for (String record : spec.getVisitRecords()) {
+            if (!patient.readVisitRecords().contains(record)) {
+                patient.addVisitRecord(record);
+            }
+        }
+        indexNaturalKeys(patient);
+        patientsVersion++;
+        return true;
+    }
+    
+    /**
+     * Updates a patient's details as entered in a form. A null diagnosis or
+     * medical note leaves that part unchanged; a note is added to the
+     * medical history.
+     *
+     * @return false if there is no such patient
+     */
+    public boolean updatePatientDetails(int patientID, String name, int age, String contactInfo,
+                                        String diagnosis, String medicalNote) {
+        Patient patient = findPatient(patientID);
+        if (patient == null) {
+            return false;
+        }
+        unindexNaturalKeys(patient);
+        patient.setName(name);
+        patient.setAge(age);
+        patient.setContactInfo(contactInfo);
+        if (diagnosis != null) {
+            patient.getClinicalAttributes().setDiagnosis(dictionary.canonical(diagnosis));
+        }
+        if (medicalNote != null) {
+            patient.getMedicalHistory().add(medicalNote);
+        }
+        indexNaturalKeys(patient);
+        patientsVersion++;
+        return true;
+    }
+    
+    /**
+     * Finds the patient whose natural key has the given fingerprint, or
+     * returns {@code missing}. The index for a key is built from all
+     * patients on the first lookup with it, and from then on every add and
+     * update keeps it current, so later lookups and imports cost O(1) per
+     * row. Patients sharing a key are indexed under the one added or
+     * updated last.
+     */
+    public int findPatientByNaturalKey(NaturalKey key, long fingerprint, int missing) {
+        LongIntHashMap index = naturalKeyIndexes.get(key);
+        if (index == null) {
+            List<Patient> patients = getAllPatients();
+            index = new LongIntHashMap(patients.size());
+            for (Patient patient : patients) {
+                index.put(key.fingerprint(patient), patient.getPatientID());
+            }
+            naturalKeyIndexes.put(key, index);
+        }
+        return index.get(fingerprint, missing);
+    }
+    
+    private void indexNaturalKeys(Patient patient) {
+        for (Map.Entry<NaturalKey, LongIntHashMap> entry : naturalKeyIndexes.entrySet()) {
+            entry.getValue().put(entry.getKey().fingerprint(patient), patient.getPatientID());
+        }
+    }
+    
+    // Drops the patient's current keys, unless they already point at another patient
+    private void unindexNaturalKeys(Patient patient) {
+        for (Map.Entry<NaturalKey, LongIntHashMap> entry : naturalKeyIndexes.entrySet()) {
+            long fingerprint = entry.getKey().fingerprint(patient);
+            LongIntHashMap index = entry.getValue();
+            if (index.containsKey(fingerprint) && index.get(fingerprint, 0) == patient.getPatientID()) {
+                index.remove(fingerprint);
+            }
+        }
+    }
+    
+    // Replaces the spec's repeated clinical values with this system's shared copies
+    private ClinicalAttributes internAttributes(PatientSpec spec) {
+        ClinicalAttributes attributes = spec.getClinicalAttributes();
+        attributes.intern(dictionary);
+        return attributes;
+    }
+
+    // Imported contacts are usually the insurer, so reuse its shared copy
+    private static String sharedContact(PatientSpec spec) {
+        String insurance = spec.getClinicalAttributes().getInsurance();
+        return insurance != null && insurance.equals(spec.getContactInfo()) ? insurance : spec.getContactInfo();
+    }
+
+    private void addBillingRecord(Billing billing) {
+        billingRecords.add(billing);
+        billingByPatient.put(billing.getPatientID(), billing);
+        billing.attachTo(revenueTotals);
+    }
+    
+    /**
+     * Gets the smallest unused patient ID that is at least {@code from},
+     * without reserving it, or -1 if there is none.
+     */
+    public int nextFreePatientID(int from) {
+        return patientIDs.nextFree(from);
+    }
+    
+    /**
+     * Reserves the smallest unused patient ID that is at least
+     * {@code from}, so later calls skip it even before the patient is added.
+     */
+    public int allocatePatientID(int from) {
+        return patientIDs.allocate(from);
+    }
+    
+    /**
+     * Frees an ID reserved with {@link #allocatePatientID} that did not end
+     * up with a patient, so it can be handed out again.
+     *
+     * @return false if a patient has the ID or it was not reserved
+     */
+    public boolean releasePatientID(int patientID) {
+        if (patientID < 0 || patientList.search(patientID) != null) {
+            return false;
+        }
+        return patientIDs.release(patientID);
+    }
+    
+    /**
+     * Reserves {@code count} unused patient IDs, the smallest ones that are
+     * at least {@code from}, in ascending order.
+     */
+    public int[] allocatePatientIDs(int from, int count) {
+        return patientIDs.allocateBlock(from, count);
+    }
+    
     /**
      * Finds a patient by ID.
      */
     public Patient findPatient(int patientID) {
         return patientList.search(patientID);
     }
+
+    /**
+     * Finds a patient for reading only, without moving it into the patient
+     * cache, for scans over every patient. Patients that were not cached
+     * are read-only snapshots.
+     */
+    public Patient peekPatient(int patientID) {
+        return patientList.peek(patientID);
+    }
+    
+    /**
+     * Gets hit/miss/eviction statistics of the patient cache, or null
+     * when the patient store keeps everyone in memory.
+     */
+    public LruCache.CacheStats getPatientCacheStats() {
+        return patientList.getCacheStats();
+    }
+    
+    /**
+     * Calls the action with every patient ID in ascending order, without
+     * materializing the patients.
+     */
+    public void forEachPatientID(IntConsumer action) {
+        patientList.forEachPatientID(action);
+    }
     
     /**
      * Gets all patients.
@@ -77,6 +372,8 @@ public class PatientManagementSystem {
         Appointment appointment = new Appointment(nextAppointmentID++, patient, date, time);
         appointment.schedule();
         appointmentQueue.offer(appointment);
+        analytics.recordAppointment(date, 1);
+        appointmentsVersion++;
         return appointment;
     }
     
@@ -86,7 +383,11 @@ public class PatientManagementSystem {
     public boolean cancelAppointment(int appointmentID) {
         for (Appointment appointment : appointmentQueue) {
             if (appointment.getAppointmentID() == appointmentID) {
+                if (!"Cancelled".equals(appointment.getStatus())) {
+                    analytics.recordAppointment(appointment.getDate(), -1);
+                }
                 appointment.cancel();
+                appointmentsVersion++;
                 return true;
             }
         }
@@ -99,7 +400,12 @@ public class PatientManagementSystem {
     public boolean rescheduleAppointment(int appointmentID, String newDate, String newTime) {
         for (Appointment appointment : appointmentQueue) {
             if (appointment.getAppointmentID() == appointmentID) {
+                if (!"Cancelled".equals(appointment.getStatus())) {
+                    analytics.recordAppointment(appointment.getDate(), -1);
+                }
                 appointment.reschedule(newDate, newTime);
+                analytics.recordAppointment(newDate, 1);
+                appointmentsVersion++;
                 return true;
             }
         }
@@ -138,12 +444,20 @@ public class PatientManagementSystem {
     }
     
     /**
-     * Generates a bill for a patient.
+     * Generates a bill for a patient, dated today.
      */
     public boolean generateBill(int patientID, double amount) {
+        return generateBill(patientID, amount, LocalDate.now().toString());
+    }
+    
+    /**
+     * Generates a bill for a patient on the given date (yyyy-MM-dd).
+     */
+    public boolean generateBill(int patientID, double amount, String date) {
         Billing billing = getBilling(patientID);
         if (billing != null) {
             billing.generateBill(amount);
+            analytics.recordBill(date, amount);
             return true;
         }
         return false;
@@ -156,6 +470,7 @@ public class PatientManagementSystem {
         Billing billing = getBilling(patientID);
         if (billing != null) {
             billing.addPayment(amount, date);
+            analytics.recordPayment(date, amount);
             return true;
         }
         return false;
@@ -165,12 +480,7 @@ public class PatientManagementSystem {
      * Gets billing record for a patient.
      */
     public Billing getBilling(int patientID) {
-        for (Billing billing : billingRecords) {
-            if (billing.getPatientID() == patientID) {
-                return billing;
-            }
-        }
-        return null;
+        return billingByPatient.get(patientID);
     }
     
     /**
@@ -180,29 +490,163 @@ public class PatientManagementSystem {
         return billingRecords;
     }
     
+    /**
+     * Gets the revenue totals (billed, paid, outstanding, records per
+     * payment status). They are maintained as bills and payments are
+     * recorded, so this does not scan the billing records.
+     */
+    public RevenueTotals getRevenueTotals() {
+        return revenueTotals.snapshot();
+    }
+    
+    /**
+     * Gets billed amounts, payments and appointments bucketed by date.
+     * Bills, payments and appointment changes made through this class are
+     * recorded there as they happen.
+     */
+    public TimeAnalytics getAnalytics() {
+        return analytics;
+    }
+    
+    /**
+     * Gets the k billing records with the largest outstanding balances,
+     * largest first. Ties keep the order the records were created in.
+     */
+    public List<Billing> topOutstanding(int k) {
+        return TopK.largest(billingRecords, k, Billing::getBillingAmount);
+    }
+    
+    /**
+     * Gets the k billing records with the smallest outstanding balances
+     * (paid-up records first), smallest first.
+     */
+    public List<Billing> bottomOutstanding(int k) {
+        return TopK.smallest(billingRecords, k, Billing::getBillingAmount);
+    }
+    
     /**
      * Generates a patient report.
      */
     public String generatePatientReport(int patientID) {
-        Patient patient = findPatient(patientID);
-        List<VisitPlan> plans = getVisitPlansForPatient(patientID);
-        return reportGenerator.generatePatientReport(patient, plans);
+        return reportCache.get("patient:" + patientID, patientsVersion + visitPlansVersion, () -> {
+            Patient patient = findPatient(patientID);
+            return reportGenerator.generatePatientReport(patient, getLatestClinicalPlan(patientID));
+        });
     }
     
     /**
      * Generates an appointment report.
      */
     public String generateAppointmentReport() {
-        return reportGenerator.generateAppointmentReport(getAllAppointments());
+        // Appointment lines show patient names, so patient changes count too
+        return reportCache.get("appointment", appointmentsVersion + patientsVersion,
+                () -> reportGenerator.generateAppointmentReport(getAllAppointments()));
     }
     
     /**
      * Generates a revenue report.
      */
     public String generateRevenueReport() {
-        return reportGenerator.generateRevenueReport(billingRecords);
+        RevenueTotals totals = revenueTotals.snapshot();
+        return reportCache.get("revenue", totals.getVersion(),
+                () -> reportGenerator.generateRevenueReport(billingRecords, totals));
+    }
+    
+    /**
+     * Generates a revenue report that lists only the k largest balances.
+     */
+    public String generateRevenueReport(int top) {
+        RevenueTotals totals = revenueTotals.snapshot();
+        return reportCache.get("revenue:top" + top, totals.getVersion(),
+                () -> reportGenerator.generateTopOutstandingReport(billingRecords, top, totals));
+    }
+    
+    /**
+     * Generates the analytics report over the dates recorded so far within
+     * 1970-2099. Dates outside that window, usually typos such as
+     * 0001-01-01, are listed on their own rather than stretching the period.
+     */
+    public String generateAnalyticsReport() {
+        LocalDate from = analytics.getFirstDate();
+        if (from == null && analytics.getOutlierDates().isEmpty()) {
+            return "No dated bills, payments or appointments yet.";
+        }
+        return reportGenerator.generateAnalyticsReport(analytics, from, analytics.getLastDate());
     }
     
+    /**
+     * Gets hit and miss counts of the report cache.
+     */
+    public LruCache.CacheStats getReportCacheStats() {
+        return reportCache.getStats();
+    }
+    
+    /**
+     * Writes the appointment report to the given output as it is generated.
+     */
+    public void writeAppointmentReport(Appendable out) throws IOException {
+        reportGenerator.writeAppointmentReport(getAllAppointments(), out);
+    }
+    
+    /**
+     * Writes the revenue report to the given output as it is generated.
+     */
+    public void writeRevenueReport(Appendable out) throws IOException {
+        reportGenerator.writeRevenueReport(billingRecords, revenueTotals.snapshot(), out);
+    }
+    
+    /**
+     * Writes a report ("appointment" or "revenue") to a UTF-8 text file
+     * without building it in memory first.
+     */
+    public void writeReportToFile(String reportType, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            switch (reportType.toLowerCase()) {
+                case "appointment":
+                    writeAppointmentReport(out);
+                    break;
+                case "revenue":
+                    writeRevenueReport(out);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid report type: " + reportType);
+            }
+        }
+    }
+
+    /**
+     * Exports one kind of record ("patients", "appointments", "billing" or
+     * "visitplans") to a CSV or JSON Lines file, one record at a time.
+     *
+     * @return the number of records written
+     */
+    public long exportData(String entity, DataExporter.Format format, Path file) throws IOException {
+        return exportData(entity, format, file, Runnable::run);
+    }
+
+    /**
+     * Exports one kind of record like {@link #exportData(String, DataExporter.Format, Path)},
+     * reading the records on the given executor, e.g. the thread that makes
+     * all changes to this system, while the file is written on this one.
+     *
+     * @return the number of records written
+     */
+    public long exportData(String entity, DataExporter.Format format, Path file, Executor reader)
+            throws IOException {
+        switch (entity.toLowerCase()) {
+            case "patients":
+                return DataExporter.exportPatients(this, file, format, reader);
+            case "appointments":
+                return DataExporter.exportAppointments(this, file, format, reader);
+            case "billing":
+                return DataExporter.exportBilling(this, file, format, reader);
+            case "visitplans":
+                return DataExporter.exportVisitPlans(this, file, format, reader);
+            default:
+                throw new IllegalArgumentException("Invalid export type: " + entity);
+        }
+    }
+
     /**
      * Generates a general report based on type.
      */
@@ -228,6 +672,9 @@ public class PatientManagementSystem {
         VisitPlan plan = new VisitPlan(nextVisitPlanID++, patient, date, purpose, doctor);
         plan.markPlanned();
         visitPlans.add(plan);
+        visitPlansByID.put(plan.getPlanID(), plan);
+        visitPlansByPatient.computeIfAbsent(patientID, id -> new ArrayList<>()).add(plan);
+        visitPlansVersion++;
         return plan;
     }
     
@@ -235,14 +682,29 @@ public class PatientManagementSystem {
         return visitPlans;
     }
     
-    public List<VisitPlan> getVisitPlansForPatient(int patientID) {
-        List<VisitPlan> result = new ArrayList<>();
-        for (VisitPlan vp : visitPlans) {
-            if (vp.getPatient() != null && vp.getPatient().getPatientID() == patientID) {
-                result.add(vp);
-            }
+    /**
+     * Gets all visit plans grouped by patient ID.
+     */
+    public Map<Integer, List<VisitPlan>> getVisitPlansByPatient() {
+        Map<Integer, List<VisitPlan>> byPatient = new HashMap<>();
+        for (Map.Entry<Integer, List<VisitPlan>> entry : visitPlansByPatient.entrySet()) {
+            byPatient.put(entry.getKey(), new ArrayList<>(entry.getValue()));
         }
-        return result;
+        return byPatient;
+    }
+    
+    public List<VisitPlan> getVisitPlansForPatient(int patientID) {
+        List<VisitPlan> plans = visitPlansByPatient.get(patientID);
+        return plans != null ? new ArrayList<>(plans) : new ArrayList<>();
+    }
+    
+    /**
+     * Gets the patient's latest visit plan (by date, then plan ID) that has
+     * a diagnosis or treatment plan, or null if there is none. This is the
+     * source of the clinical summary and is kept up to date as plans change.
+     */
+    public VisitPlan getLatestClinicalPlan(int patientID) {
+        return latestClinicalPlans.get(patientID);
     }
     
     public boolean setVisitPlanStatus(int planID, String status) {
@@ -255,11 +717,14 @@ public class PatientManagementSystem {
                 break;
             case "Completed":
                 plan.markCompleted();
-                // Add visit date to patient's visit records
+                // Add visit date to patient's visit records. Look the patient up
+                // again: a paged store may have evicted the plan's instance.
                 if (plan.getPatient() != null) {
+                    Patient patient = findPatient(plan.getPatient().getPatientID());
                     String record = plan.getDate() != null ? plan.getDate() : "";
-                    if (record != null && !record.isEmpty()) {
-                        plan.getPatient().addVisitRecord(record);
+                    if (patient != null && !record.isEmpty()) {
+                        patient.addVisitRecord(record);
+                        patientsVersion++;
                     }
                 }
                 break;
@@ -269,14 +734,31 @@ public class PatientManagementSystem {
             default:
                 plan.setStatus(status);
         }
+        visitPlansVersion++;
         return true;
     }
     
     private VisitPlan findVisitPlan(int planID) {
-        for (VisitPlan vp : visitPlans) {
-            if (vp.getPlanID() == planID) return vp;
+        return visitPlansByID.get(planID);
+    }
+    
+    // Keeps latestClinicalPlans current after the plan's diagnosis or treatment changed
+    private void updateClinicalSummary(VisitPlan plan) {
+        int patientID = plan.getPatient().getPatientID();
+        VisitPlan latest = latestClinicalPlans.get(patientID);
+        if (plan.hasClinicalInfo()) {
+            if (latest == null || plan.isAfter(latest)) {
+                latestClinicalPlans.put(patientID, plan);
+            }
+        } else if (plan == latest) {
+            // The summary plan was cleared: fall back to the patient's other plans
+            VisitPlan previous = ReportGenerator.latestClinicalPlan(visitPlansByPatient.get(patientID));
+            if (previous != null) {
+                latestClinicalPlans.put(patientID, previous);
+            } else {
+                latestClinicalPlans.remove(patientID);
+            }
         }
-        return null;
     }
 
     // Visit Plan report updates
@@ -286,6 +768,8 @@ public class PatientManagementSystem {
         if (diagnosis != null) vp.setDiagnosis(diagnosis);
         if (treatmentPlan != null) vp.setTreatmentPlan(treatmentPlan);
         if (doctorNote != null) vp.setDoctorNote(doctorNote);
+        updateClinicalSummary(vp);
+        visitPlansVersion++;
         return true;
     }
 
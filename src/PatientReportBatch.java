@@ -0,0 +1,157 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Parallel generation of all patient reports
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the patient report of every patient, e.g. at month end.
+ *
+ * Patients are split into chunks that a pool of worker threads renders in
+ * parallel, while the calling thread writes the finished chunks out in
+ * patient ID order. At most a few chunks per worker are in flight, so memory
+ * does not grow with the number of patients beyond one int per patient ID.
+ * Clinical summaries come from the system's per-patient latest plan, so
+ * no report scans the visit plans.
+ *
+ * The system must not be changed while a batch runs.
+ */
+public class PatientReportBatch {
+    private static final int CHUNK_SIZE = 256;
+
+    private PatientReportBatch() {
+    }
+
+    /**
+     * Receives finished reports in patient ID order.
+     */
+    private interface Sink {
+        void write(String name, byte[] report) throws IOException;
+    }
+
+    /**
+     * Writes one file per patient, named patient_&lt;id&gt;.txt, into a directory.
+     *
+     * @return the number of reports written
+     */
+    public static int writeToDirectory(PatientManagementSystem system, Path dir, int workers) throws IOException {
+        Files.createDirectories(dir);
+        return run(system, workers, (name, report) -> Files.write(dir.resolve(name), report));
+    }
+
+    /**
+     * Writes all reports into one zip archive, one entry per patient.
+     *
+     * @return the number of reports written
+     */
+    public static int writeToZip(PatientManagementSystem system, Path zipFile, int workers) throws IOException {
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(zipFile), 1 << 16);
+             ZipOutputStream zip = new ZipOutputStream(file)) {
+            // Compression runs on the writing thread; reports are repetitive text, so fast is enough
+            zip.setLevel(Deflater.BEST_SPEED);
+            return run(system, workers, (name, report) -> {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(report);
+                zip.closeEntry();
+            });
+        }
+    }
+
+    private static int run(PatientManagementSystem system, int workers, Sink sink) throws IOException {
+        int[] ids = patientIDs(system);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, workers), daemonThreads("patient-report"));
+        // Bounded so rendering cannot run arbitrarily far ahead of writing
+        int maxInFlight = Math.max(1, workers) * 4;
+        Deque<Future<List<byte[]>>> pending = new ArrayDeque<>();
+        int written = 0;
+        try {
+            int next = 0;
+            while (next < ids.length || !pending.isEmpty()) {
+                while (next < ids.length && pending.size() < maxInFlight) {
+                    int from = next;
+                    int to = Math.min(ids.length, from + CHUNK_SIZE);
+                    pending.add(pool.submit(() -> render(system, ids, from, to)));
+                    next = to;
+                }
+                List<byte[]> reports = pending.poll().get();
+                for (byte[] report : reports) {
+                    sink.write("patient_" + ids[written] + ".txt", report);
+                    written++;
+                }
+            }
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Report batch interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<byte[]> render(PatientManagementSystem system, int[] ids, int from, int to) {
+        ReportGenerator generator = new ReportGenerator();
+        List<byte[]> reports = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Patient patient = system.findPatient(ids[i]);
+            String report = generator.generatePatientReport(patient, system.getLatestClinicalPlan(ids[i]));
+            reports.add(report.getBytes(StandardCharsets.UTF_8));
+        }
+        return reports;
+    }
+
+    private static int[] patientIDs(PatientManagementSystem system) {
+        IdCollector ids = new IdCollector();
+        system.forEachPatientID(ids);
+        return Arrays.copyOf(ids.ids, ids.size);
+    }
+
+    private static final class IdCollector implements IntConsumer {
+        private int[] ids = new int[1024];
+        private int size;
+
+        @Override
+        public void accept(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
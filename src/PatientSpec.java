@@ -0,0 +1,120 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Description of a patient to add in a batch
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything needed to create one patient with
+ * {@link PatientManagementSystem#addPatientsBatch(java.util.Collection)}:
+ * the basic details, optional clinical attributes and visit records, and
+ * an initial billing amount.
+ */
+public class PatientSpec {
+
+    /**
+     * Outcome of one spec in a batch.
+     */
+    public enum Result {
+        CREATED,
+        /** A patient with this ID already exists, or appears earlier in the batch. */
+        DUPLICATE,
+        /** The name is missing or blank. */
+        INVALID
+    }
+
+    private int patientID;
+    private String name;
+    private int age;
+    private String contactInfo;
+    private ClinicalAttributes clinicalAttributes; // null until first used
+    private List<String> visitRecords;            // null until first used
+    private double billingAmount;
+
+    public PatientSpec(int patientID, String name, int age, String contactInfo) {
+        this.patientID = patientID;
+        this.name = name;
+        this.age = age;
+        this.contactInfo = contactInfo;
+        this.billingAmount = 0.0;
+    }
+
+    // Getters and Setters
+    public int getPatientID() {
+        return patientID;
+    }
+
+    public void setPatientID(int patientID) {
+        this.patientID = patientID;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+
+    public String getContactInfo() {
+        return contactInfo;
+    }
+
+    public void setContactInfo(String contactInfo) {
+        this.contactInfo = contactInfo;
+    }
+
+    public ClinicalAttributes getClinicalAttributes() {
+        if (clinicalAttributes == null) {
+            clinicalAttributes = new ClinicalAttributes();
+        }
+        return clinicalAttributes;
+    }
+
+    public boolean hasClinicalAttributes() {
+        return clinicalAttributes != null;
+    }
+
+    public List<String> getVisitRecords() {
+        return visitRecords != null ? visitRecords : Collections.emptyList();
+    }
+
+    public void addVisitRecord(String visitRecord) {
+        if (visitRecords == null) {
+            visitRecords = new ArrayList<>(1);
+        }
+        visitRecords.add(visitRecord);
+    }
+
+    public double getBillingAmount() {
+        return billingAmount;
+    }
+
+    /**
+     * Sets the amount billed when the patient is created.
+     */
+    public void setBillingAmount(double billingAmount) {
+        this.billingAmount = billingAmount;
+    }
+
+    /**
+     * Checks the fields required to create a patient. Any ID is accepted,
+     * as in {@link PatientManagementSystem#addPatient}.
+     */
+    public boolean isValid() {
+        return name != null && !name.trim().isEmpty();
+    }
+}
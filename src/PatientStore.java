@@ -0,0 +1,79 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Storage abstraction behind the patient lookup API
+ */
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Storage for patients keyed by patient ID.
+ * PatientBST keeps every patient on the heap; PagedPatientStore keeps
+ * records on disk and only holds the recently used ones in memory.
+ */
+public interface PatientStore {
+
+    /**
+     * Inserts a patient. Patients with an existing ID are ignored.
+     */
+    void insert(Patient patient);
+
+    /**
+     * Inserts patients given in ascending ID order, none of which exist yet.
+     * Stores that can load sorted input faster than one insert at a time
+     * override this.
+     */
+    default void insertAll(List<Patient> patients) {
+        for (Patient patient : patients) {
+            insert(patient);
+        }
+    }
+
+    /**
+     * Searches for a patient by ID, or returns null if not found.
+     */
+    Patient search(int patientID);
+
+    /**
+     * Gets a patient for reading without changing which patients the store
+     * keeps in memory, or returns null if not found. Stores with a cache
+     * override this so full scans such as exports do not push out the
+     * working set; a patient that was not in memory is then a read-only
+     * snapshot.
+     */
+    default Patient peek(int patientID) {
+        return search(patientID);
+    }
+
+    /**
+     * Gets all patients ordered by ID.
+     */
+    List<Patient> getAllPatients();
+
+    /**
+     * Deletes a patient by ID.
+     */
+    void delete(int patientID);
+
+    /**
+     * Passes the ID of every stored patient to the action, in ascending
+     * order. Stores that can list IDs without loading patients override this.
+     */
+    default void forEachPatientID(IntConsumer action) {
+        for (Patient patient : getAllPatients()) {
+            action.accept(patient.getPatientID());
+        }
+    }
+
+    boolean isEmpty();
+
+    /**
+     * Gets statistics of the in-memory patient cache, or null if the store
+     * keeps every patient in memory.
+     */
+    default LruCache.CacheStats getCacheStats() {
+        return null;
+    }
+}
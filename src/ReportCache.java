@@ -0,0 +1,90 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Cache of generated reports validated by version stamps
+ */
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps recently generated reports, keyed by report type and parameters
+ * (e.g. "patient:10042"), in an LRU cache bounded both by the number of
+ * reports and by their total length in characters. A report longer than
+ * half the character budget is returned without being cached, so one huge
+ * report cannot push out all the others.
+ *
+ * Each report is stored with the version stamp of the data it was built
+ * from. The stamp is the sum of the change counters the report depends on;
+ * the counters only ever increase, so an unchanged sum means none of them
+ * changed. A lookup with a different stamp regenerates the report, so a
+ * stale report is never returned.
+ */
+public class ReportCache {
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final long DEFAULT_MAX_CHARS = 8L * 1024 * 1024;
+
+    private final LruCache<String, Entry> reports;
+    private final long maxChars;
+    private long totalChars;
+
+    public ReportCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_CHARS);
+    }
+
+    /**
+     * @param maxChars most characters kept over all cached reports
+     */
+    public ReportCache(int capacity, long maxChars) {
+        this.reports = new LruCache<>(capacity, (key, entry) -> totalChars -= entry.report.length());
+        this.maxChars = maxChars;
+        this.totalChars = 0;
+    }
+
+    /**
+     * Gets the cached report for the key if it was built at the given
+     * version, otherwise generates, caches and returns it.
+     */
+    public synchronized String get(String key, long version, Supplier<String> generator) {
+        Entry cached = reports.peek(key);
+        if (cached != null && cached.version != version) {
+            reports.remove(key); // stale, so the lookup below counts a miss
+            totalChars -= cached.report.length();
+        }
+        Entry entry = reports.get(key);
+        if (entry != null) {
+            return entry.report;
+        }
+        String report = generator.get();
+        if (report.length() <= maxChars / 2) {
+            reports.put(key, new Entry(version, report));
+            totalChars += report.length();
+            // Evicting takes each report's length off the total, see the listener
+            while (totalChars > maxChars) {
+                reports.evictEldest();
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Gets the total length of the cached reports.
+     */
+    public synchronized long getCachedChars() {
+        return totalChars;
+    }
+
+    public synchronized LruCache.CacheStats getStats() {
+        return reports.getStats();
+    }
+
+    private static class Entry {
+        private final long version;
+        private final String report;
+
+        Entry(long version, String report) {
+            this.version = version;
+            this.report = report;
+        }
+    }
+}
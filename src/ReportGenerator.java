@@ -2,15 +2,21 @@
  * Hospital Patient Management System
  * Course: Data Structures
  * 
- * Report Generator with Merge Sort and Quick Sort algorithms
+ * Report Generator with stable merge sorting
  */
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
 
 /**
  * Generates various reports for the hospital system.
- * Uses sorting algorithms (Merge Sort and Quick Sort) for organizing data.
+ * Sorts data with the stable {@link MergeSort}, in parallel for large inputs.
  */
 public class ReportGenerator {
     private String reportType;
@@ -26,6 +32,15 @@ public class ReportGenerator {
      * This variant includes optional visit plans to pull the latest diagnosis and treatment plan.
      */
     public String generatePatientReport(Patient patient, List<VisitPlan> visitPlans) {
+        return generatePatientReport(patient, latestClinicalPlan(visitPlans));
+    }
+    
+    /**
+     * Generates a patient report whose clinical summary comes from the given
+     * plan (the patient's latest plan with a diagnosis or treatment), which
+     * may be null.
+     */
+    public String generatePatientReport(Patient patient, VisitPlan latestClinicalPlan) {
         if (patient == null) {
             return "Patient not found.";
         }
@@ -36,48 +51,48 @@ public class ReportGenerator {
         report.append(patient.getPatientInfo());
         report.append("\nVisit Records (Sorted by Date):\n");
         
-        // Sort visit records using Quick Sort
-        List<String> sortedVisits = new ArrayList<>(patient.getVisitRecords());
-        quickSort(sortedVisits, 0, sortedVisits.size() - 1);
+        // Visit records are appended in date order, which merge sort finishes in one pass
+        List<String> sortedVisits = MergeSort.sorted(patient.readVisitRecords(), visit -> visit);
         
         for (String visit : sortedVisits) {
             report.append("- ").append(visit).append("\n");
         }
         
-        // Latest diagnosis and treatment plan from visit plans
-        String latestDiagnosis = "";
-        String latestTreatment = "";
-        String latestPlanDate = "";
-        if (visitPlans != null && !visitPlans.isEmpty()) {
-            for (VisitPlan vp : visitPlans) {
-                String d = vp.getDiagnosis() != null ? vp.getDiagnosis().trim() : "";
-                String t = vp.getTreatmentPlan() != null ? vp.getTreatmentPlan().trim() : "";
-                String when = vp.getDate() != null ? vp.getDate() : ""; // YYYY-MM-DD lex-orderable
-                boolean hasInfo = (!d.isEmpty()) || (!t.isEmpty());
-                if (hasInfo) {
-                    // Prefer later date lexicographically
-                    if (latestPlanDate.isEmpty() || when.compareTo(latestPlanDate) >= 0) {
-                        latestPlanDate = when;
-                        latestDiagnosis = d;
-                        latestTreatment = t;
-                    }
-                }
-            }
-        }
-        
         report.append("\nClinical Summary\n");
         report.append("----------------\n");
+        String latestDiagnosis = latestClinicalPlan != null ? trimmed(latestClinicalPlan.getDiagnosis()) : "";
+        String latestTreatment = latestClinicalPlan != null ? trimmed(latestClinicalPlan.getTreatmentPlan()) : "";
         report.append("Diagnosis: ").append(latestDiagnosis.isEmpty() ? "N/A" : latestDiagnosis).append("\n");
         report.append("Treatment Plan:\n").append(latestTreatment.isEmpty() ? "N/A" : latestTreatment).append("\n");
         
         return report.toString();
     }
     
+    /**
+     * Finds the latest plan (by date, then plan ID) that has a diagnosis or
+     * treatment plan, or null if there is none.
+     */
+    public static VisitPlan latestClinicalPlan(Iterable<VisitPlan> visitPlans) {
+        VisitPlan latest = null;
+        if (visitPlans != null) {
+            for (VisitPlan vp : visitPlans) {
+                if (vp.hasClinicalInfo() && (latest == null || vp.isAfter(latest))) {
+                    latest = vp;
+                }
+            }
+        }
+        return latest;
+    }
+    
+    private static String trimmed(String s) {
+        return s != null ? s.trim() : "";
+    }
+    
     /**
      * Backward-compatible variant without visit plans.
      */
     public String generatePatientReport(Patient patient) {
-        return generatePatientReport(patient, null);
+        return generatePatientReport(patient, (VisitPlan) null);
     }
     
     /**
@@ -85,187 +100,178 @@ public class ReportGenerator {
      */
     public String generateAppointmentReport(List<Appointment> appointments) {
         StringBuilder report = new StringBuilder();
-        report.append("=== APPOINTMENT REPORT ===\n");
-        report.append("Total Appointments: ").append(appointments.size()).append("\n\n");
+        try {
+            writeAppointmentReport(appointments, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        return report.toString();
+    }
+    
+    /**
+     * Writes the appointment report line by line, e.g. to a Writer on a
+     * file. Apart from sorting, memory use does not grow with the number of
+     * appointments.
+     */
+    public void writeAppointmentReport(List<Appointment> appointments, Appendable out) throws IOException {
+        out.append("=== APPOINTMENT REPORT ===\n");
+        out.append("Total Appointments: ").append(String.valueOf(appointments.size())).append("\n\n");
         
         // Sort appointments by date using Merge Sort
-        List<Appointment> sortedAppointments = new ArrayList<>(appointments);
-        mergeSortAppointments(sortedAppointments, 0, sortedAppointments.size() - 1);
+        List<Appointment> sortedAppointments = MergeSort.parallelSorted(appointments, Appointment::getDate);
         
-        report.append("Appointments (Sorted by Date):\n");
+        // Statistics are counted while writing
+        long scheduled = 0;
+        long completed = 0;
+        long cancelled = 0;
+        out.append("Appointments (Sorted by Date):\n");
         for (Appointment appointment : sortedAppointments) {
-            report.append(appointment.toString()).append("\n");
+            out.append(appointment.toString()).append("\n");
+            String status = appointment.getStatus();
+            if ("Scheduled".equals(status)) {
+                scheduled++;
+            } else if ("Completed".equals(status)) {
+                completed++;
+            } else if ("Cancelled".equals(status)) {
+                cancelled++;
+            }
         }
         
-        // Statistics
-        long scheduled = sortedAppointments.stream().filter(a -> a.getStatus().equals("Scheduled")).count();
-        long completed = sortedAppointments.stream().filter(a -> a.getStatus().equals("Completed")).count();
-        long cancelled = sortedAppointments.stream().filter(a -> a.getStatus().equals("Cancelled")).count();
-        
-        report.append("\nStatistics:\n");
-        report.append("Scheduled: ").append(scheduled).append("\n");
-        report.append("Completed: ").append(completed).append("\n");
-        report.append("Cancelled: ").append(cancelled).append("\n");
-        
-        return report.toString();
+        out.append("\nStatistics:\n");
+        out.append("Scheduled: ").append(String.valueOf(scheduled)).append("\n");
+        out.append("Completed: ").append(String.valueOf(completed)).append("\n");
+        out.append("Cancelled: ").append(String.valueOf(cancelled)).append("\n");
     }
     
     /**
      * Generates a revenue report with sorted billing records.
      */
     public String generateRevenueReport(List<Billing> billingRecords) {
+        return generateRevenueReport(billingRecords, RevenueTotals.of(billingRecords));
+    }
+    
+    /**
+     * Generates a revenue report, taking the totals from already maintained
+     * aggregates instead of summing the records.
+     */
+    public String generateRevenueReport(List<Billing> billingRecords, RevenueTotals totals) {
         StringBuilder report = new StringBuilder();
-        report.append("=== REVENUE REPORT ===\n");
-        report.append("Total Patients with Billing: ").append(billingRecords.size()).append("\n\n");
-        
-        // Sort billing records by amount using Merge Sort
-        List<Billing> sortedBilling = new ArrayList<>(billingRecords);
-        mergeSortBilling(sortedBilling, 0, sortedBilling.size() - 1);
-        
-        double totalRevenue = 0;
-        report.append("Billing Records (Sorted by Amount):\n");
-        for (Billing billing : sortedBilling) {
-            report.append(billing.toString()).append("\n");
-            totalRevenue += billing.getBillingAmount();
+        try {
+            writeRevenueReport(billingRecords, totals, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
         }
-        
-        report.append("\nTotal Outstanding Revenue: $").append(String.format("%.2f", totalRevenue)).append("\n");
-        
         return report.toString();
     }
     
     /**
-     * Quick Sort implementation for sorting strings.
+     * Writes the revenue report line by line, e.g. to a Writer on a file.
+     * Apart from sorting, memory use does not grow with the number of
+     * billing records.
      */
-    private void quickSort(List<String> list, int low, int high) {
-        if (low < high) {
-            int pi = partition(list, low, high);
-            quickSort(list, low, pi - 1);
-            quickSort(list, pi + 1, high);
-        }
+    public void writeRevenueReport(List<Billing> billingRecords, Appendable out) throws IOException {
+        writeRevenueReport(billingRecords, RevenueTotals.of(billingRecords), out);
     }
     
-    private int partition(List<String> list, int low, int high) {
-        String pivot = list.get(high);
-        int i = low - 1;
+    /**
+     * Writes the revenue report with totals taken from the given aggregates.
+     */
+    public void writeRevenueReport(List<Billing> billingRecords, RevenueTotals totals, Appendable out)
+            throws IOException {
+        out.append("=== REVENUE REPORT ===\n");
+        out.append("Total Patients with Billing: ").append(String.valueOf(billingRecords.size())).append("\n\n");
         
-        for (int j = low; j < high; j++) {
-            if (list.get(j).compareTo(pivot) <= 0) {
-                i++;
-                String temp = list.get(i);
-                list.set(i, list.get(j));
-                list.set(j, temp);
-            }
-        }
+        // Sort billing records by amount using Merge Sort
+        List<Billing> sortedBilling = MergeSort.parallelSortedDescending(billingRecords, Billing::getBillingAmount);
         
-        String temp = list.get(i + 1);
-        list.set(i + 1, list.get(high));
-        list.set(high, temp);
+        out.append("Billing Records (Sorted by Amount):\n");
+        for (Billing billing : sortedBilling) {
+            out.append(billing.toString()).append("\n");
+        }
         
-        return i + 1;
+        out.append("\nTotal Outstanding Revenue: $")
+           .append(String.format("%.2f", totals.getTotalOutstanding())).append("\n");
     }
     
     /**
-     * Merge Sort implementation for sorting appointments by date.
+     * Generates a revenue report listing only the k largest balances.
      */
-    private void mergeSortAppointments(List<Appointment> list, int left, int right) {
-        if (left < right) {
-            int mid = left + (right - left) / 2;
-            mergeSortAppointments(list, left, mid);
-            mergeSortAppointments(list, mid + 1, right);
-            mergeAppointments(list, left, mid, right);
+    public String generateTopOutstandingReport(List<Billing> billingRecords, int k, RevenueTotals totals) {
+        StringBuilder report = new StringBuilder();
+        try {
+            writeTopOutstandingReport(billingRecords, k, totals, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
         }
+        return report.toString();
     }
     
-    private void mergeAppointments(List<Appointment> list, int left, int mid, int right) {
-        int n1 = mid - left + 1;
-        int n2 = right - mid;
-        
-        List<Appointment> leftList = new ArrayList<>();
-        List<Appointment> rightList = new ArrayList<>();
-        
-        for (int i = 0; i < n1; i++) {
-            leftList.add(list.get(left + i));
-        }
-        for (int j = 0; j < n2; j++) {
-            rightList.add(list.get(mid + 1 + j));
-        }
-        
-        int i = 0, j = 0, k = left;
-        
-        while (i < n1 && j < n2) {
-            if (leftList.get(i).getDate().compareTo(rightList.get(j).getDate()) <= 0) {
-                list.set(k, leftList.get(i));
-                i++;
-            } else {
-                list.set(k, rightList.get(j));
-                j++;
-            }
-            k++;
-        }
+    /**
+     * Writes a revenue report listing only the k largest balances. The
+     * records are selected with a bounded heap instead of being sorted.
+     */
+    public void writeTopOutstandingReport(List<Billing> billingRecords, int k, RevenueTotals totals, Appendable out)
+            throws IOException {
+        out.append("=== REVENUE REPORT (TOP ").append(String.valueOf(k)).append(") ===\n");
+        out.append("Total Patients with Billing: ").append(String.valueOf(billingRecords.size())).append("\n\n");
         
-        while (i < n1) {
-            list.set(k, leftList.get(i));
-            i++;
-            k++;
+        List<Billing> top = TopK.largest(billingRecords, k, Billing::getBillingAmount);
+        out.append("Largest Outstanding Balances (").append(String.valueOf(top.size()))
+           .append(" of ").append(String.valueOf(billingRecords.size())).append("):\n");
+        for (Billing billing : top) {
+            out.append(billing.toString()).append("\n");
         }
         
-        while (j < n2) {
-            list.set(k, rightList.get(j));
-            j++;
-            k++;
-        }
+        out.append("\nPatients with Balance: ").append(String.valueOf(totals.getPatientsWithBalance())).append("\n");
+        out.append("Total Billed: $").append(String.format("%.2f", totals.getTotalBilled())).append("\n");
+        out.append("Total Paid: $").append(String.format("%.2f", totals.getTotalPaid())).append("\n");
+        out.append("Total Outstanding Revenue: $")
+           .append(String.format("%.2f", totals.getTotalOutstanding())).append("\n");
     }
     
     /**
-     * Merge Sort implementation for sorting billing records by amount.
+     * Generates a report of billing and payments per month and appointments
+     * per weekday between two dates (null when no date falls within
+     * 1970-2099). Months without bills or payments are left out, and dates
+     * outside 1970-2099 are listed day by day at the end.
      */
-    private void mergeSortBilling(List<Billing> list, int left, int right) {
-        if (left < right) {
-            int mid = left + (right - left) / 2;
-            mergeSortBilling(list, left, mid);
-            mergeSortBilling(list, mid + 1, right);
-            mergeBilling(list, left, mid, right);
-        }
-    }
-    
-    private void mergeBilling(List<Billing> list, int left, int mid, int right) {
-        int n1 = mid - left + 1;
-        int n2 = right - mid;
-        
-        List<Billing> leftList = new ArrayList<>();
-        List<Billing> rightList = new ArrayList<>();
-        
-        for (int i = 0; i < n1; i++) {
-            leftList.add(list.get(left + i));
-        }
-        for (int j = 0; j < n2; j++) {
-            rightList.add(list.get(mid + 1 + j));
-        }
-        
-        int i = 0, j = 0, k = left;
-        
-        while (i < n1 && j < n2) {
-            if (leftList.get(i).getBillingAmount() >= rightList.get(j).getBillingAmount()) {
-                list.set(k, leftList.get(i));
-                i++;
-            } else {
-                list.set(k, rightList.get(j));
-                j++;
+    public String generateAnalyticsReport(TimeAnalytics analytics, LocalDate from, LocalDate to) {
+        StringBuilder report = new StringBuilder();
+        report.append("=== ANALYTICS REPORT ===\n");
+        if (from != null) {
+            report.append("Period: ").append(from).append(" to ").append(to).append("\n\n");
+
+            Map<YearMonth, Double> billed = analytics.getBilledByMonth(YearMonth.from(from), YearMonth.from(to));
+            Map<YearMonth, Double> paid = analytics.getPaymentsByMonth(YearMonth.from(from), YearMonth.from(to));
+            report.append("Month      Billed            Payments\n");
+            for (Map.Entry<YearMonth, Double> month : billed.entrySet()) {
+                double payments = paid.get(month.getKey());
+                if (month.getValue() != 0 || payments != 0) {
+                    report.append(String.format("%-10s $%-16.2f $%.2f%n", month.getKey(), month.getValue(), payments));
+                }
             }
-            k++;
-        }
-        
-        while (i < n1) {
-            list.set(k, leftList.get(i));
-            i++;
-            k++;
+
+            report.append("\nAppointments by Weekday:\n");
+            for (Map.Entry<DayOfWeek, Long> day : analytics.getAppointmentsByWeekday(from, to).entrySet()) {
+                report.append(day.getKey()).append(": ").append(day.getValue()).append("\n");
+            }
+
+            report.append("\nTotal Billed: $").append(String.format("%.2f", analytics.getBilledBetween(from, to))).append("\n");
+            report.append("Total Payments: $").append(String.format("%.2f", analytics.getPaymentsBetween(from, to)))
+                  .append(" (").append(analytics.getPaymentCountBetween(from, to)).append(" payments)\n");
+        } else {
+            report.append("Period: no dates within 1970-2099\n");
         }
-        
-        while (j < n2) {
-            list.set(k, rightList.get(j));
-            j++;
-            k++;
+
+        SortedSet<LocalDate> outliers = analytics.getOutlierDates();
+        if (!outliers.isEmpty()) {
+            report.append("\nDates outside 1970-2099 (likely mistyped):\n");
+            report.append("Date        Billed            Payments          Appointments\n");
+            for (LocalDate day : outliers) {
+                report.append(String.format("%-11s $%-16.2f $%-16.2f %d%n", day, analytics.getBilledBetween(day, day),
+                        analytics.getPaymentsBetween(day, day), analytics.getAppointmentsBetween(day, day)));
+            }
         }
+        return report.toString();
     }
 }
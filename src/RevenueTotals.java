@@ -0,0 +1,167 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Running revenue aggregates
+ */
+
+import java.math.BigDecimal;
+
+/**
+ * Totals over a set of billing records, kept up to date by the records
+ * themselves: each bill, payment or balance change reports the old and new
+ * balance, so reading a total never loops over the ledger.
+ *
+ * Sums are kept exactly (as BigDecimal) so that adding and later
+ * subtracting the same amounts cannot drift the way a running double sum
+ * does. All updates and reads are synchronized; use {@link #snapshot()} to
+ * read several values that belong together.
+ */
+public class RevenueTotals {
+    private BigDecimal totalBilled = BigDecimal.ZERO;
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+    private BigDecimal totalOutstanding = BigDecimal.ZERO;
+    private int recordCount;
+    private int paidCount;
+    private int pendingCount;
+    private int overpaidCount;
+    private long version; // number of changes recorded
+
+    /**
+     * Computes the totals of a list of records by scanning it once. The
+     * records are not attached, so later changes are not reflected.
+     */
+    public static RevenueTotals of(Iterable<Billing> billingRecords) {
+        RevenueTotals totals = new RevenueTotals();
+        for (Billing billing : billingRecords) {
+            totals.add(billing);
+        }
+        return totals;
+    }
+
+    /**
+     * Adds a record with its current balance and payments. Its billed
+     * amount is taken to be the balance plus the payments, which is exact
+     * unless a payment was larger than the balance at the time.
+     */
+    synchronized void add(Billing billing) {
+        version++;
+        recordCount++;
+        countStatus(billing.getBillingAmount(), 1);
+        BigDecimal balance = exact(billing.getBillingAmount());
+        totalOutstanding = totalOutstanding.add(balance);
+        BigDecimal paid = BigDecimal.ZERO;
+        for (Billing.Payment payment : billing.getPaymentHistory()) {
+            paid = paid.add(exact(payment.getAmount()));
+        }
+        totalBilled = totalBilled.add(balance).add(paid);
+        totalPaid = totalPaid.add(paid);
+    }
+
+    /**
+     * Records that a balance changed from oldBalance to newBalance because
+     * of a bill of the given amount and/or a payment of the given amount.
+     */
+    synchronized void record(double oldBalance, double newBalance, double billed, double paid) {
+        version++;
+        countStatus(oldBalance, -1);
+        countStatus(newBalance, 1);
+        totalOutstanding = totalOutstanding.subtract(exact(oldBalance)).add(exact(newBalance));
+        if (billed != 0) {
+            totalBilled = totalBilled.add(exact(billed));
+        }
+        if (paid != 0) {
+            totalPaid = totalPaid.add(exact(paid));
+        }
+    }
+
+    // Same categories as Billing.getPaymentStatus
+    private void countStatus(double balance, int delta) {
+        if (balance == 0) {
+            paidCount += delta;
+        } else if (balance > 0) {
+            pendingCount += delta;
+        } else {
+            overpaidCount += delta;
+        }
+    }
+
+    private static BigDecimal exact(double value) {
+        return value == 0 ? BigDecimal.ZERO : new BigDecimal(value);
+    }
+
+    /**
+     * Gets a copy of the current totals that no longer changes.
+     */
+    public synchronized RevenueTotals snapshot() {
+        RevenueTotals copy = new RevenueTotals();
+        copy.totalBilled = totalBilled;
+        copy.totalPaid = totalPaid;
+        copy.totalOutstanding = totalOutstanding;
+        copy.recordCount = recordCount;
+        copy.paidCount = paidCount;
+        copy.pendingCount = pendingCount;
+        copy.overpaidCount = overpaidCount;
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Gets the sum of all bills, including the opening balance of imported records.
+     */
+    public synchronized double getTotalBilled() {
+        return totalBilled.doubleValue();
+    }
+
+    /**
+     * Gets the sum of all payments received, including any part of a
+     * payment that exceeded the balance.
+     */
+    public synchronized double getTotalPaid() {
+        return totalPaid.doubleValue();
+    }
+
+    /**
+     * Gets the sum of all current balances.
+     */
+    public synchronized double getTotalOutstanding() {
+        return totalOutstanding.doubleValue();
+    }
+
+    /**
+     * Gets a counter that increases whenever a record is added or any
+     * balance changes, including changes made directly on a Billing.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the number of patients with a balance still to pay.
+     */
+    public synchronized int getPatientsWithBalance() {
+        return pendingCount;
+    }
+
+    public synchronized int getPaidCount() {
+        return paidCount;
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    public synchronized int getOverpaidCount() {
+        return overpaidCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Billed: $%.2f, Paid: $%.2f, Outstanding: $%.2f (Paid: %d, Pending: %d, Overpaid: %d)",
+                getTotalBilled(), getTotalPaid(), getTotalOutstanding(), paidCount, pendingCount, overpaidCount);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * String dictionary of shared copies of repeated values
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one shared copy of each distinct string. Values such as blood
+ * types or insurers repeat across thousands of patients, so storing the
+ * shared copy saves a String per patient. Only low-cardinality values
+ * belong here; the dictionary only grows.
+ *
+ * Each PatientManagementSystem has its own dictionary. Looking up a known
+ * value does not lock.
+ */
+public class StringDictionary {
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the shared copy of a value, adding it if it is new.
+     */
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = values.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Hot/cold tiered patient storage
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps recently used patients as full objects in a size-bounded LRU cache
+ * (the hot tier). Patients pushed out of the cache are serialized with
+ * PatientCodec into a sorted map (the cold tier) and rehydrated
+ * transparently by {@link #search(int)}.
+ *
+ * A cold patient that is still held elsewhere (by an appointment, a visit
+ * plan or the waiting list) is returned as that same instance rather than
+ * decoded again, see EvictedPatients, so all holders see the same changes.
+ * Other patients returned by {@link #getAllPatients()} that were cold are
+ * read-only snapshots; use {@link #search(int)} before changing a patient.
+ */
+public class TieredPatientStore implements PatientStore {
+    private final LruCache<Integer, Patient> hot;
+    private final TreeMap<Integer, byte[]> cold;
+    private final EvictedPatients evicted;
+
+    /**
+     * @param hotCapacity maximum number of patients kept as full objects
+     */
+    public TieredPatientStore(int hotCapacity) {
+        this.cold = new TreeMap<>();
+        this.evicted = new EvictedPatients();
+        this.hot = new LruCache<>(hotCapacity, (id, patient) -> {
+            cold.put(id, PatientCodec.encode(patient));
+            evicted.add(patient, 0);
+        });
+    }
+
+    @Override
+    public synchronized void insert(Patient patient) {
+        int id = patient.getPatientID();
+        if (hot.containsKey(id) || cold.containsKey(id)) {
+            return; // Patient already exists
+        }
+        hot.put(id, patient);
+    }
+
+    @Override
+    public synchronized Patient search(int patientID) {
+        Patient patient = hot.get(patientID);
+        if (patient != null) {
+            return patient;
+        }
+        byte[] record = cold.remove(patientID);
+        if (record == null) {
+            return null;
+        }
+        EvictedPatients.Entry inUse = evicted.take(patientID);
+        Patient held = inUse != null ? inUse.get() : null;
+        patient = held != null ? held : PatientCodec.decode(record);
+        hot.put(patientID, patient);
+        return patient;
+    }
+
+    /**
+     * Reads a cold patient from its serialized form without moving it into
+     * the hot tier.
+     */
+    @Override
+    public synchronized Patient peek(int patientID) {
+        Patient patient = hot.peek(patientID);
+        if (patient != null) {
+            return patient;
+        }
+        byte[] record = cold.get(patientID);
+        if (record == null) {
+            return null;
+        }
+        Patient held = evicted.peek(patientID);
+        return held != null ? held : PatientCodec.decode(record);
+    }
+
+    @Override
+    public synchronized List<Patient> getAllPatients() {
+        // Merge the (small) sorted hot tier into the ordered cold tier
+        List<Patient> hotPatients = hot.values();
+        hotPatients.sort(null);
+        List<Patient> patients = new ArrayList<>(hotPatients.size() + cold.size());
+        Iterator<Map.Entry<Integer, byte[]>> coldIt = cold.entrySet().iterator();
+        Map.Entry<Integer, byte[]> nextCold = coldIt.hasNext() ? coldIt.next() : null;
+        for (Patient p : hotPatients) {
+            while (nextCold != null && nextCold.getKey() < p.getPatientID()) {
+                patients.add(coldPatient(nextCold));
+                nextCold = coldIt.hasNext() ? coldIt.next() : null;
+            }
+            patients.add(p);
+        }
+        while (nextCold != null) {
+            patients.add(coldPatient(nextCold));
+            nextCold = coldIt.hasNext() ? coldIt.next() : null;
+        }
+        return patients;
+    }
+
+    // The instance still held elsewhere, or else a decoded snapshot
+    private Patient coldPatient(Map.Entry<Integer, byte[]> entry) {
+        Patient held = evicted.peek(entry.getKey());
+        return held != null ? held : PatientCodec.decode(entry.getValue());
+    }
+
+    /**
+     * Lists cold IDs from the map keys, so no patient is rehydrated.
+     */
+    @Override
+    public synchronized void forEachPatientID(IntConsumer action) {
+        List<Patient> hotPatients = hot.values();
+        hotPatients.sort(null);
+        Iterator<Integer> coldIt = cold.keySet().iterator();
+        Integer nextCold = coldIt.hasNext() ? coldIt.next() : null;
+        for (Patient p : hotPatients) {
+            while (nextCold != null && nextCold < p.getPatientID()) {
+                action.accept(nextCold);
+                nextCold = coldIt.hasNext() ? coldIt.next() : null;
+            }
+            action.accept(p.getPatientID());
+        }
+        while (nextCold != null) {
+            action.accept(nextCold);
+            nextCold = coldIt.hasNext() ? coldIt.next() : null;
+        }
+    }
+
+    @Override
+    public synchronized void delete(int patientID) {
+        hot.remove(patientID);
+        cold.remove(patientID);
+        evicted.remove(patientID);
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return hot.size() == 0 && cold.isEmpty();
+    }
+
+    public synchronized int size() {
+        return hot.size() + cold.size();
+    }
+
+    /**
+     * Gets the number of patients currently held in serialized form.
+     */
+    public synchronized int getColdCount() {
+        return cold.size();
+    }
+
+    @Override
+    public synchronized LruCache.CacheStats getCacheStats() {
+        return hot.getStats();
+    }
+}
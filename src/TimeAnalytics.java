@@ -0,0 +1,210 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Date-bucketed billing, payment and appointment statistics
+ */
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Billed amounts, payments and appointments bucketed by calendar day.
+ * PatientManagementSystem records every bill, payment and appointment
+ * change here as it happens, so date-range totals are answered from
+ * DayHistograms in O(log n) instead of by scanning and parsing the records.
+ *
+ * Amounts are kept in whole cents. Events whose date is missing or not in
+ * yyyy-MM-dd form cannot be bucketed; they are only counted.
+ */
+public class TimeAnalytics {
+    private final DayHistogram billedCents = new DayHistogram();
+    private final DayHistogram paidCents = new DayHistogram();
+    private final DayHistogram paymentCounts = new DayHistogram();
+    private final DayHistogram[] appointmentsByWeekday = new DayHistogram[7];
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+    private long undatedEvents;
+
+    public TimeAnalytics() {
+        for (int i = 0; i < appointmentsByWeekday.length; i++) {
+            appointmentsByWeekday[i] = new DayHistogram();
+        }
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date, or returns null if it is missing or invalid.
+     */
+    public static LocalDate parseDate(String date) {
+        if (date == null || date.isEmpty() || "N/A".equals(date)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    synchronized void recordBill(String date, double amount) {
+        LocalDate day = dated(date);
+        if (day != null) {
+            billedCents.add(day, toCents(amount));
+        }
+    }
+
+    synchronized void recordPayment(String date, double amount) {
+        LocalDate day = dated(date);
+        if (day != null) {
+            paidCents.add(day, toCents(amount));
+            paymentCounts.add(day, 1);
+        }
+    }
+
+    /**
+     * Adds (delta 1) or removes (delta -1) an appointment on the given date.
+     */
+    synchronized void recordAppointment(String date, int delta) {
+        LocalDate day = delta > 0 ? dated(date) : parseDate(date);
+        if (day != null) {
+            appointmentsByWeekday[day.getDayOfWeek().ordinal()].add(day, delta);
+        }
+    }
+
+    // Parses the date of a new event and widens the known date range within 1970-2099
+    private LocalDate dated(String date) {
+        LocalDate day = parseDate(date);
+        if (day == null) {
+            undatedEvents++;
+            return null;
+        }
+        if (day.isBefore(DayHistogram.DENSE_FIRST_DATE) || day.isAfter(DayHistogram.DENSE_LAST_DATE)) {
+            return day; // see getOutlierDates
+        }
+        if (firstDate == null || day.isBefore(firstDate)) {
+            firstDate = day;
+        }
+        if (lastDate == null || day.isAfter(lastDate)) {
+            lastDate = day;
+        }
+        return day;
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Gets the total billed between two dates, both included.
+     */
+    public synchronized double getBilledBetween(LocalDate from, LocalDate to) {
+        return billedCents.sum(from, to) / 100.0;
+    }
+
+    /**
+     * Gets the total of payments received between two dates, both included.
+     */
+    public synchronized double getPaymentsBetween(LocalDate from, LocalDate to) {
+        return paidCents.sum(from, to) / 100.0;
+    }
+
+    /**
+     * Gets the number of payments received between two dates, both included.
+     */
+    public synchronized long getPaymentCountBetween(LocalDate from, LocalDate to) {
+        return paymentCounts.sum(from, to);
+    }
+
+    /**
+     * Gets the number of appointments (not counting cancelled ones) between
+     * two dates, both included.
+     */
+    public synchronized long getAppointmentsBetween(LocalDate from, LocalDate to) {
+        long count = 0;
+        for (DayHistogram histogram : appointmentsByWeekday) {
+            count += histogram.sum(from, to);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the amount billed in each month from one month to another, both
+     * included, in calendar order.
+     */
+    public synchronized Map<YearMonth, Double> getBilledByMonth(YearMonth from, YearMonth to) {
+        Map<YearMonth, Double> months = new LinkedHashMap<>();
+        for (YearMonth m = from; !m.isAfter(to); m = m.plusMonths(1)) {
+            months.put(m, billedCents.sum(m.atDay(1), m.atEndOfMonth()) / 100.0);
+        }
+        return months;
+    }
+
+    /**
+     * Gets the payments received in each month from one month to another,
+     * both included, in calendar order.
+     */
+    public synchronized Map<YearMonth, Double> getPaymentsByMonth(YearMonth from, YearMonth to) {
+        Map<YearMonth, Double> months = new LinkedHashMap<>();
+        for (YearMonth m = from; !m.isAfter(to); m = m.plusMonths(1)) {
+            months.put(m, paidCents.sum(m.atDay(1), m.atEndOfMonth()) / 100.0);
+        }
+        return months;
+    }
+
+    /**
+     * Gets the number of appointments (not counting cancelled ones) on each
+     * day of the week between two dates, both included.
+     */
+    public synchronized Map<DayOfWeek, Long> getAppointmentsByWeekday(LocalDate from, LocalDate to) {
+        Map<DayOfWeek, Long> weekdays = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            weekdays.put(day, appointmentsByWeekday[day.ordinal()].sum(from, to));
+        }
+        return weekdays;
+    }
+
+    /**
+     * Gets the dates outside 1970-2099 that still have bills, payments or
+     * appointments, in order. Such dates are usually mistyped; they are
+     * kept out of the DayHistogram trees and are few.
+     */
+    public synchronized SortedSet<LocalDate> getOutlierDates() {
+        SortedSet<LocalDate> dates = new TreeSet<>(billedCents.getOutlierDays());
+        dates.addAll(paidCents.getOutlierDays());
+        dates.addAll(paymentCounts.getOutlierDays());
+        for (DayHistogram histogram : appointmentsByWeekday) {
+            dates.addAll(histogram.getOutlierDays());
+        }
+        return dates;
+    }
+
+    /**
+     * Gets the earliest date recorded within 1970-2099, or null if there is
+     * none.
+     */
+    public synchronized LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    /**
+     * Gets the latest date recorded within 1970-2099, or null if there is
+     * none.
+     */
+    public synchronized LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    /**
+     * Gets the number of events that could not be bucketed for lack of a valid date.
+     */
+    public synchronized long getUndatedEvents() {
+        return undatedEvents;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Top-k selection with a bounded binary heap
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Finds the k largest or smallest items by a numeric key without sorting
+ * everything: a min-heap of at most k entries holds the best items seen so
+ * far, so a scan costs O(n log k) time and O(min(k, n)) memory: the heap
+ * is sized to the collection when that is smaller than k, and otherwise
+ * grows as items arrive, so a huge k does not allocate k slots up front.
+ *
+ * Results come in the order a stable sort would give them, so they match
+ * the first k lines of the full sorted report.
+ */
+public final class TopK {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int k;
+    private int[] order;    // arrival index of each entry
+    private double[] keys;  // key of each entry, larger is better
+    private Object[] items;
+    private int size;
+
+    private TopK(int k, int capacity) {
+        this.k = k;
+        order = new int[capacity];
+        keys = new double[capacity];
+        items = new Object[capacity];
+    }
+
+    /**
+     * Returns the k items with the largest keys, largest first.
+     */
+    public static <T> List<T> largest(Iterable<? extends T> items, int k, ToDoubleFunction<? super T> key) {
+        return select(items, k, key, false);
+    }
+
+    /**
+     * Returns the k items with the smallest keys, smallest first.
+     */
+    public static <T> List<T> smallest(Iterable<? extends T> items, int k, ToDoubleFunction<? super T> key) {
+        return select(items, k, key, true);
+    }
+
+    private static <T> List<T> select(Iterable<? extends T> source, int k, ToDoubleFunction<? super T> key,
+                                      boolean smallest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        int capacity = source instanceof Collection
+                ? Math.min(k, ((Collection<?>) source).size()) : Math.min(k, INITIAL_CAPACITY);
+        TopK heap = new TopK(k, capacity);
+        int index = 0;
+        for (T item : source) {
+            double value = key.applyAsDouble(item);
+            heap.offer(smallest ? -value : value, index++, item);
+        }
+        return heap.drain();
+    }
+
+    // Keeps the item if it beats the worst entry; equal keys keep the earlier item
+    private void offer(double key, int index, Object item) {
+        if (size == keys.length && size < k) {
+            int capacity = (int) Math.min(k, Math.max(INITIAL_CAPACITY, 2L * size));
+            order = Arrays.copyOf(order, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            items = Arrays.copyOf(items, capacity);
+        }
+        if (size < keys.length) {
+            set(size, key, index, item);
+            siftUp(size++);
+        } else if (key > keys[0]) {
+            set(0, key, index, item);
+            siftDown(0);
+        }
+    }
+
+    // Pops the worst entry repeatedly, filling the result from the back
+    @SuppressWarnings("unchecked")
+    private <T> List<T> drain() {
+        Object[] result = new Object[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = items[0];
+            size--;
+            set(0, keys[size], order[size], items[size]);
+            items[size] = null;
+            siftDown(0);
+        }
+        List<T> list = new ArrayList<>(result.length);
+        for (Object o : result) {
+            list.add((T) o);
+        }
+        return list;
+    }
+
+    // Whether entry a ranks below entry b: smaller key, or same key and later arrival
+    private boolean worse(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && order[a] > order[b]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && worse(child + 1, child)) {
+                child++;
+            }
+            if (!worse(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void set(int i, double key, int index, Object item) {
+        keys[i] = key;
+        order[i] = index;
+        items[i] = item;
+    }
+
+    private void swap(int a, int b) {
+        double k = keys[a];
+        int o = order[a];
+        Object item = items[a];
+        set(a, keys[b], order[b], items[b]);
+        set(b, k, o, item);
+    }
+}
@@ -75,6 +75,23 @@ public class VisitPlan {
         return sb.toString();
     }
 
+    /**
+     * Checks whether a diagnosis or treatment plan has been recorded.
+     */
+    public boolean hasClinicalInfo() {
+        return (diagnosis != null && !diagnosis.trim().isEmpty()) ||
+               (treatmentPlan != null && !treatmentPlan.trim().isEmpty());
+    }
+
+    /**
+     * Checks whether this plan comes after another: by date (YYYY-MM-DD
+     * orders as text), then by plan ID.
+     */
+    public boolean isAfter(VisitPlan other) {
+        int byDate = (date != null ? date : "").compareTo(other.date != null ? other.date : "");
+        return byDate != 0 ? byDate > 0 : planID > other.planID;
+    }
+
     // Status helpers
     public void markPlanned() { this.status = "Planned"; }
     public void markCompleted() { this.status = "Completed"; }
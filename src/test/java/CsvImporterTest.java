@@ -0,0 +1,185 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the CSV importers
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvImporterTest {
+    static final String HEADER = "Name,Age,Gender,Blood Type,Medical Condition,Date of Admission,Doctor,"
+            + "Hospital,Insurance Provider,Billing Amount,Room Number,Admission Type,Discharge Date,"
+            + "Medication,Test Results";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parallelImportAssignsTheSameIdsAsSequential() throws Exception {
+        Path csv = writeCsv(dir.resolve("patients.csv"), 5000);
+        PatientManagementSystem sequential = systemWithTakenIds();
+        ImportResult expected = CsvImporter.importHealthcareCsv(sequential, csv.toString());
+        PatientManagementSystem parallel = systemWithTakenIds();
+        ImportResult actual = CsvImporter.importHealthcareCsvParallel(parallel, csv.toString(), 4);
+        PatientManagementSystem mapped = systemWithTakenIds();
+        CsvImporter.importHealthcareCsvMapped(mapped, csv.toString());
+
+        assertEquals(expected.getSummary(), actual.getSummary());
+        assertSamePatients(sequential, parallel);
+        assertSamePatients(sequential, mapped);
+        // Row 2 wanted 10002, which was taken before the import
+        assertEquals("Patient 2", sequential.findPatient(10003).getName());
+    }
+
+    @Test
+    void importsFilesWithoutNameColumn() throws Exception {
+        Path csv = dir.resolve("no-name.csv");
+        Files.write(csv, "Age,Hospital\n40,General\n".getBytes(StandardCharsets.UTF_8));
+        PatientManagementSystem system = new PatientManagementSystem();
+        ImportResult result = CsvImporter.importHealthcareCsvMapped(system, csv.toString());
+        assertEquals(1, result.getCreated());
+        assertTrue(result.getMissingColumns().contains(CsvSchema.Column.NAME));
+        assertEquals("N/A", system.findPatient(10001).getName());
+        assertEquals(40, system.findPatient(10001).getAge());
+    }
+
+    @Test
+    void resumedImportMatchesAnUninterruptedOne() throws Exception {
+        Path csv = writeCsv(dir.resolve("patients.csv"), 5000);
+        PatientManagementSystem expected = new PatientManagementSystem();
+        CsvImporter.importHealthcareCsv(expected, csv.toString());
+
+        PatientManagementSystem system = new PatientManagementSystem();
+        ImportOptions options = new ImportOptions();
+        options.setCheckpointFile(ImportCheckpoint.defaultFileFor(csv));
+        ImportJob[] job = new ImportJob[1];
+        options.setProgressListener(progress -> {
+            synchronized (job) { // the job may report before startImport returns
+                if (progress.getRows() >= 2048) job[0].cancel();
+            }
+        });
+        synchronized (job) {
+            job[0] = CsvImporter.startImport(system, csv.toString(), options);
+        }
+        ImportResult first = job[0].getResult().get();
+        assertTrue(first.isCancelled());
+        ImportCheckpoint saved = ImportCheckpoint.load(options.getCheckpointFile());
+        assertTrue(saved.getRow() >= 2048 && saved.getRow() < 5000, saved.toString());
+
+        List<ImportProgress> reported = new ArrayList<>();
+        options.setProgressListener(reported::add);
+        ImportResult second = CsvImporter.importHealthcareCsv(system, csv.toString(), options);
+        assertEquals(saved.getRow(), second.getResumedAtRow());
+        assertSamePatients(expected, system);
+        ImportProgress last = reported.get(reported.size() - 1);
+        assertEquals(saved.getRow(), last.getResumedRows());
+        assertEquals(saved.getOffset(), last.getResumedBytes());
+        assertEquals(1.0, last.getFraction());
+    }
+
+    @Test
+    void rejectsCheckpointOfAnotherFile() throws Exception {
+        Path csv = writeCsv(dir.resolve("patients.csv"), 10);
+        ImportOptions options = new ImportOptions();
+        options.setCheckpointFile(dir.resolve("other.checkpoint"));
+        BasicFileAttributes attributes = Files.readAttributes(csv, BasicFileAttributes.class);
+        new ImportCheckpoint(200, 3, 1234, ImportCheckpoint.identityOf(attributes), 0)
+                .save(options.getCheckpointFile());
+        assertThrows(IOException.class,
+                () -> CsvImporter.importHealthcareCsv(new PatientManagementSystem(), csv.toString(), options));
+    }
+
+    @Test
+    void deduplicatesAgainstPatientsAddedAndEditedSinceTheLastImport() throws Exception {
+        Path csv = dir.resolve("dup.csv");
+        Files.write(csv, (HEADER + "\n" + row("Ann Lee", "Normal") + row("Bob Ray", "Normal")
+                + row("Ann Lee", "Abnormal")).getBytes(StandardCharsets.UTF_8));
+        PatientManagementSystem system = new PatientManagementSystem();
+        ImportOptions options = new ImportOptions();
+        options.setDuplicatePolicy(ImportOptions.DuplicatePolicy.SKIP);
+
+        ImportResult first = CsvImporter.importHealthcareCsv(system, csv.toString(), options);
+        assertEquals(2, first.getCreated());
+        assertEquals(1, first.getDuplicates());
+        ImportResult again = CsvImporter.importHealthcareCsv(system, csv.toString(), options);
+        assertEquals(0, again.getCreated());
+        assertEquals(3, again.getDuplicates());
+
+        // Renamed patients no longer match their old key
+        system.updatePatientDetails(10001, "Ann Smith", 40, "c", null, null);
+        ImportResult renamed = CsvImporter.importHealthcareCsv(system, csv.toString(), options);
+        assertEquals(1, renamed.getCreated());
+        assertEquals(2, renamed.getDuplicates());
+        assertEquals("Ann Lee", system.findPatient(10003).getName());
+    }
+
+    @Test
+    void upsertUpdatesARowAddedEarlierInTheSameBatch() throws Exception {
+        Path csv = dir.resolve("dup.csv");
+        Files.write(csv, (HEADER + "\n" + row("Ann Lee", "Normal") + row("Ann Lee", "Abnormal"))
+                .getBytes(StandardCharsets.UTF_8));
+        PatientManagementSystem system = new PatientManagementSystem();
+        ImportOptions options = new ImportOptions();
+        options.setDuplicatePolicy(ImportOptions.DuplicatePolicy.UPSERT);
+        ImportResult result = CsvImporter.importHealthcareCsv(system, csv.toString(), options);
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals("Abnormal", system.findPatient(10001).getClinicalAttributes().getTestResults());
+        assertNull(system.findPatient(10002));
+    }
+
+    private static String row(String name, String testResults) {
+        return name + ",40,Female,A+,Asthma,2024-01-01,Dr X,General,Medicare,100,1,Urgent,2024-02-01,Aspirin,"
+                + testResults + "\n";
+    }
+
+    // Patients already in the system push generated IDs forward
+    private static PatientManagementSystem systemWithTakenIds() {
+        PatientManagementSystem system = new PatientManagementSystem();
+        system.addPatient(10002, "Existing", 50, "c");
+        system.addPatient(10500, "Existing", 50, "c");
+        return system;
+    }
+
+    static void assertSamePatients(PatientManagementSystem expected, PatientManagementSystem actual) {
+        List<Patient> a = expected.getAllPatients();
+        List<Patient> b = actual.getAllPatients();
+        assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.get(i).getPatientInfo(), b.get(i).getPatientInfo());
+            Billing billing = expected.getBilling(a.get(i).getPatientID());
+            if (billing != null) {
+                assertEquals(billing.getBillingAmount(), actual.getBilling(b.get(i).getPatientID()).getBillingAmount());
+            }
+        }
+    }
+
+    // Rows with blank lines, bad ages, quoted commas and duplicate contents mixed in
+    static Path writeCsv(Path file, int rows) throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 1; i <= rows; i++) {
+            if (i % 97 == 0) {
+                csv.append('\n');
+                continue;
+            }
+            String age = i % 13 == 0 ? "N/A" : String.valueOf(20 + i % 60);
+            csv.append("patient ").append(i % 500 == 0 ? 1 : i).append(',').append(age)
+                    .append(",Female,A+,Asthma,2024-01-").append(10 + i % 18)
+                    .append(",Dr ").append(i % 7).append(",\"Hosp, ").append(i % 3).append("\",Medicare,")
+                    .append(100 + i).append(".5,").append(i % 400).append(",Urgent,2024-02-01,Aspirin,Normal\n");
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
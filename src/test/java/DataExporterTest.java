@@ -0,0 +1,99 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the CSV / JSON Lines exporter
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DataExporterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void escapesSeparatorsInsideListElements() throws Exception {
+        PatientManagementSystem system = new PatientManagementSystem();
+        system.addPatient(10001, "Lee, Ann", 40, "555 \"home\"");
+        Patient p = system.findPatient(10001);
+        p.addVisitRecord("ward A|B");
+        p.addVisitRecord("C:\\scans");
+
+        List<String> csv = export(system, "patients", DataExporter.Format.CSV);
+        assertEquals(2, csv.size());
+        assertTrue(csv.get(1).startsWith("10001,\"Lee, Ann\",40,\"555 \"\"home\"\"\","), csv.get(1));
+        assertTrue(csv.get(1).endsWith(",ward A\\|B|C:\\\\scans"), csv.get(1));
+
+        List<String> json = export(system, "patients", DataExporter.Format.JSON_LINES);
+        assertTrue(json.get(0).endsWith("\"visit_records\":[\"ward A|B\",\"C:\\\\scans\"]}"), json.get(0));
+    }
+
+    @Test
+    void writesNonFiniteAmountsAsMissing() throws Exception {
+        // The system's revenue totals reject such amounts, so the record is added by hand
+        PatientManagementSystem system = new PatientManagementSystem();
+        Billing billing = new Billing(10001);
+        system.getAllBillingRecords().add(billing);
+        billing.generateBill(Double.NaN);
+        billing.addPayment(Double.POSITIVE_INFINITY, "2024|01");
+
+        List<String> csv = export(system, "billing", DataExporter.Format.CSV);
+        assertEquals("10001,,,2024\\|01:", csv.get(1));
+        List<String> json = export(system, "billing", DataExporter.Format.JSON_LINES);
+        assertEquals("{\"patient_id\":10001,\"amount\":null,\"status\":null,"
+                + "\"payments\":[{\"date\":\"2024|01\",\"amount\":null}]}", json.get(0));
+    }
+
+    @Test
+    void replacesUnpairedSurrogates() throws Exception {
+        PatientManagementSystem system = new PatientManagementSystem();
+        system.addPatient(10001, "Ann\uD800", 40, "c");
+        system.addPatient(10002, "Bob \uD83D\uDE00", 41, "c");
+
+        List<String> csv = export(system, "patients", DataExporter.Format.CSV);
+        assertEquals(3, csv.size());
+        assertTrue(csv.get(1).startsWith("10001,Ann?,40,"), csv.get(1));
+        assertTrue(csv.get(2).startsWith("10002,Bob \uD83D\uDE00,41,"), csv.get(2));
+    }
+
+    @Test
+    void readsRecordsInSlicesOnTheReader() throws Exception {
+        PatientManagementSystem system = new PatientManagementSystem();
+        for (int id = 10001; id <= 10600; id++) {
+            system.addPatient(id, "Patient " + id, 40, "c");
+        }
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        AtomicInteger slices = new AtomicInteger();
+        try {
+            Path file = dir.resolve("patients.jsonl");
+            long count = system.exportData("patients", DataExporter.Format.JSON_LINES, file, task -> {
+                slices.incrementAndGet();
+                reader.execute(task);
+            });
+            assertEquals(600, count);
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            assertEquals(600, lines.size());
+            assertTrue(lines.get(599).startsWith("{\"patient_id\":10600,"), lines.get(599));
+        } finally {
+            reader.shutdown();
+        }
+        assertEquals(3, slices.get()); // 256 + 256 + 88 patients
+    }
+
+    private List<String> export(PatientManagementSystem system, String entity, DataExporter.Format format)
+            throws Exception {
+        Path file = dir.resolve(entity + (format == DataExporter.Format.CSV ? ".csv" : ".jsonl"));
+        system.exportData(entity, format, file);
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the per-day Fenwick histogram
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class DayHistogramTest {
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void rangeSumsMatchBruteForceWhileGrowingBothWays() {
+        DayHistogram histogram = new DayHistogram();
+        long[] perDay = new long[6000];
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            // Days spread over 16 years, so the tree grows to the left and right several times
+            int day = random.nextInt(perDay.length);
+            long value = random.nextInt(2001) - 1000;
+            histogram.add(BASE.plusDays(day - 3000), value);
+            perDay[day] += value;
+        }
+        long total = 0;
+        for (long value : perDay) {
+            total += value;
+        }
+        assertEquals(total, histogram.total());
+        for (int q = 0; q < 2000; q++) {
+            int from = random.nextInt(perDay.length);
+            int to = from + random.nextInt(400);
+            long expected = 0;
+            for (int d = from; d <= Math.min(to, perDay.length - 1); d++) {
+                expected += perDay[d];
+            }
+            assertEquals(expected, histogram.sum(BASE.plusDays(from - 3000), BASE.plusDays(to - 3000)));
+        }
+        assertEquals(perDay[3000], histogram.get(BASE));
+        assertEquals(0, histogram.sum(BASE, BASE.minusDays(1)));
+    }
+
+    @Test
+    void strayDatesDoNotGrowTheTree() {
+        DayHistogram histogram = new DayHistogram();
+        histogram.add(LocalDate.of(1, 1, 1), 5);
+        histogram.add(BASE, 100);
+        histogram.add(LocalDate.of(9999, 12, 31), 7);
+        histogram.add(LocalDate.of(9999, 12, 31), 1);
+        assertEquals(1024, histogram.coveredDays());
+        assertEquals(113, histogram.total());
+        assertEquals(100, histogram.sum(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1)));
+        assertEquals(105, histogram.sum(LocalDate.MIN, BASE));
+        assertEquals(8, histogram.get(LocalDate.of(9999, 12, 31)));
+        assertEquals(113, histogram.sum(LocalDate.MIN, LocalDate.MAX));
+    }
+
+    @Test
+    void staysWithinTheDenseWindowAtItsEdges() {
+        DayHistogram histogram = new DayHistogram();
+        histogram.add(LocalDate.of(1970, 1, 1), 1);
+        histogram.add(LocalDate.of(2099, 12, 31), 2);
+        histogram.add(LocalDate.of(1969, 12, 31), 4);
+        histogram.add(LocalDate.of(2100, 1, 1), 8);
+        assertTrue(histogram.coveredDays() <= LocalDate.of(2099, 12, 31).toEpochDay() + 1);
+        assertEquals(3, histogram.sum(LocalDate.of(1970, 1, 1), LocalDate.of(2099, 12, 31)));
+        assertEquals(15, histogram.total());
+        assertEquals(5, histogram.sum(LocalDate.of(1969, 12, 31), LocalDate.of(1970, 1, 1)));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for watched-folder ingestion
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DirectoryIngestorTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void importsExistingAndAppendedLines() throws Exception {
+        Path inbox = Files.createDirectory(dir.resolve("inbox"));
+        Path csv = CsvImporterTest.writeCsv(inbox.resolve("a.csv"), 100);
+        PatientManagementSystem system = new PatientManagementSystem();
+        Results results = new Results();
+        try (DirectoryIngestor ingestor = new DirectoryIngestor(system, inbox, dir.resolve("checkpoints"),
+                new ImportOptions(), results)) {
+            ingestor.start();
+            assertEquals(99, results.next().getCreated()); // one line of the 100 is blank
+            Files.write(csv, "appended patient,40,Male\npartial".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+            ImportResult appended = results.next();
+            assertEquals(1, appended.getCreated());
+            assertEquals(100, appended.getResumedAtRow());
+        }
+        assertEquals("Appended Patient", system.findPatient(10101).getName());
+        assertEquals(100, system.getAllPatients().size());
+    }
+
+    @Test
+    void closeCancelsTheRunningImportAndKeepsItsCheckpoint() throws Exception {
+        Path inbox = Files.createDirectory(dir.resolve("inbox"));
+        Path csv = CsvImporterTest.writeCsv(inbox.resolve("a.csv"), 5000);
+        Path checkpoints = dir.resolve("checkpoints");
+        PatientManagementSystem system = new PatientManagementSystem();
+        Path checkpoint = ImportCheckpoint.defaultFileFor(checkpoints.resolve("a.csv"));
+        ImportOptions slow = new ImportOptions();
+        slow.setBatchPauseMillis(60_000);
+        DirectoryIngestor ingestor = new DirectoryIngestor(system, inbox, checkpoints, slow, new Results());
+        ingestor.start();
+        // The checkpoint is saved with the first batch, before the pause
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!Files.exists(checkpoint) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long start = System.nanoTime();
+        ingestor.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        // One batch of 1024 patients, from the lines up to the tenth blank one
+        assertEquals(1034, ImportCheckpoint.load(checkpoint).getRow());
+        assertEquals(1024, system.getAllPatients().size());
+
+        Results results = new Results();
+        try (DirectoryIngestor resumed = new DirectoryIngestor(system, inbox, checkpoints, new ImportOptions(),
+                results)) {
+            resumed.start();
+            assertEquals(1034, results.next().getResumedAtRow());
+        }
+        PatientManagementSystem expected = new PatientManagementSystem();
+        CsvImporter.importHealthcareCsv(expected, csv.toString());
+        CsvImporterTest.assertSamePatients(expected, system);
+    }
+
+    @Test
+    void importsAFileDroppedAgainUnderTheSameNameFromItsStart() throws Exception {
+        Path inbox = Files.createDirectory(dir.resolve("inbox"));
+        Path csv = CsvImporterTest.writeCsv(inbox.resolve("daily.csv"), 50);
+        PatientManagementSystem system = new PatientManagementSystem();
+        Results results = new Results();
+        try (DirectoryIngestor ingestor = new DirectoryIngestor(system, inbox, dir.resolve("checkpoints"),
+                new ImportOptions(), results)) {
+            ingestor.start();
+            assertEquals(50, results.next().getCreated());
+
+            // Next day's extract, larger, moved over the old one
+            Path staged = CsvImporterTest.writeCsv(dir.resolve("staged.csv"), 80);
+            Files.move(staged, csv, StandardCopyOption.REPLACE_EXISTING);
+            ImportResult replaced = results.next();
+            assertEquals(80, replaced.getCreated());
+            assertEquals(0, replaced.getResumedAtRow());
+
+            // Rewritten in place, shorter than the saved offset
+            CsvImporterTest.writeCsv(csv, 10);
+            ImportResult rewritten = results.next();
+            assertEquals(10, rewritten.getCreated());
+            assertEquals(0, rewritten.getResumedAtRow());
+        }
+        assertEquals(140, system.getAllPatients().size());
+    }
+
+    /**
+     * Hands the listener's results to the test thread.
+     */
+    private static class Results implements DirectoryIngestor.Listener {
+        private final BlockingQueue<Object> outcomes = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onImported(Path file, ImportResult result) {
+            outcomes.add(result);
+        }
+
+        @Override
+        public void onFailed(Path file, IOException error) {
+            outcomes.add(error);
+        }
+
+        ImportResult next() throws Exception {
+            Object outcome = outcomes.poll(30, TimeUnit.SECONDS);
+            if (outcome instanceof IOException) throw (IOException) outcome;
+            assertNotNull(outcome, "no import within 30 seconds");
+            return (ImportResult) outcome;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for non-throwing number parsing
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class FastNumbersTest {
+
+    @Test
+    void matchesParseDoubleOnLongMantissas() {
+        String[] amounts = {
+            "18856.281305978155", "33643.327286577885", "0.1", "1e23", "9007199254740993",
+            "2.2250738585072014E-308", "4.9e-324", "1.7976931348623157e308",
+            "12345678901234567890.5", "0.000000000000000000000000123456789", "00000123.4500", " -7.25 "
+        };
+        for (String s : amounts) {
+            assertEquals(Double.parseDouble(s), FastNumbers.parseDouble(s), s);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            String s = Double.toString(random.nextDouble() * 50_000);
+            assertEquals(Double.parseDouble(s), FastNumbers.parseDouble(s), s);
+        }
+    }
+
+    @Test
+    void rejectsMalformedAndNonFiniteNumbers() {
+        String[] invalid = {null, "", "  ", "N/A", "abc", "1.2.3", "1e", "1e+", "NaN", "Infinity", "0x10",
+            "1e999", "-1e999", "1.7976931348623159e308"};
+        for (String s : invalid) {
+            assertTrue(Double.isNaN(FastNumbers.parseDouble(s)), String.valueOf(s));
+        }
+        assertEquals(0.0, FastNumbers.parseDouble("1e-999"));
+    }
+
+    @Test
+    void parsesIntsWithinRange() {
+        assertEquals(42, FastNumbers.parseInt(" +42 "));
+        assertEquals(-2147483647, FastNumbers.parseInt("-2147483647"));
+        assertEquals(FastNumbers.INVALID_INT, FastNumbers.parseInt("2147483648"));
+        assertEquals(FastNumbers.INVALID_INT, FastNumbers.parseInt("-2147483648"));
+        assertEquals(FastNumbers.INVALID_INT, FastNumbers.parseInt("4.5"));
+        assertEquals(FastNumbers.INVALID_INT, FastNumbers.parseInt("-"));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the bitmap ID allocator
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class IdAllocatorTest {
+
+    @Test
+    void findsTheSmallestFreeIdAcrossPages() {
+        IdAllocator ids = new IdAllocator();
+        for (int id = 65000; id < 65536 + 70; id++) {
+            ids.markUsed(id);
+        }
+        assertEquals(64999, ids.nextFree(64999));
+        assertEquals(65536 + 70, ids.nextFree(65000));
+        assertEquals(65536 + 70, ids.allocate(65100));
+        assertEquals(65536 + 71, ids.nextFree(65000));
+        assertFalse(ids.markUsed(65001));
+        assertEquals(607, ids.getUsedCount());
+    }
+
+    @Test
+    void allocatesBlocksInAscendingOrder() {
+        IdAllocator ids = new IdAllocator();
+        ids.markUsed(11);
+        ids.markUsed(13);
+        assertArrayEquals(new int[] {10, 12, 14, 15}, ids.allocateBlock(10, 4));
+        assertTrue(ids.isUsed(15));
+        assertFalse(ids.isUsed(-1));
+    }
+
+    @Test
+    void failedBlockLeavesNothingReserved() {
+        IdAllocator ids = new IdAllocator();
+        ids.markUsed(Integer.MAX_VALUE - 1);
+        assertThrows(IllegalStateException.class, () -> ids.allocateBlock(Integer.MAX_VALUE - 3, 4));
+        assertEquals(1, ids.getUsedCount());
+        assertEquals(Integer.MAX_VALUE - 3, ids.nextFree(Integer.MAX_VALUE - 3));
+    }
+
+    @Test
+    void releasesIdsAndDropsEmptyPages() {
+        IdAllocator ids = new IdAllocator();
+        assertEquals(5, ids.allocate(5));
+        assertTrue(ids.release(5));
+        assertFalse(ids.release(5));
+        assertEquals(5, ids.allocate(5));
+        assertThrows(IllegalArgumentException.class, () -> ids.release(-1));
+    }
+
+    @Test
+    void systemReleasesOnlyUnusedReservations() {
+        PatientManagementSystem system = new PatientManagementSystem();
+        system.addPatient(10001, "Ann", 30, "c");
+        int reserved = system.allocatePatientID(10001);
+        assertEquals(10002, reserved);
+        assertEquals(10003, system.nextFreePatientID(10001));
+        assertTrue(system.releasePatientID(reserved));
+        assertEquals(10002, system.nextFreePatientID(10001));
+        assertFalse(system.releasePatientID(10001));
+        assertEquals(10002, system.nextFreePatientID(10001));
+    }
+}
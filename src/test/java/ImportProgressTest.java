@@ -0,0 +1,38 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for import progress rates and ETA
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ImportProgressTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void derivesRateAndEtaFromTheWholeFile() {
+        ImportProgress progress = new ImportProgress(1000, 100, 400, 2 * SECOND);
+        assertEquals(500.0, progress.getRowsPerSecond());
+        assertEquals(6, progress.getEtaSeconds());
+        assertEquals(0.25, progress.getFraction());
+    }
+
+    @Test
+    void leavesResumedRowsOutOfTheRate() {
+        // Resumed at 300 of 400 bytes; this run did 1000 rows and 50 bytes in 2 seconds
+        ImportProgress progress = new ImportProgress(4000, 350, 400, 2 * SECOND, 3000, 300);
+        assertEquals(500.0, progress.getRowsPerSecond());
+        assertEquals(2, progress.getEtaSeconds());
+        assertEquals(4000, progress.getRows());
+        assertEquals(0.875, progress.getFraction());
+    }
+
+    @Test
+    void hasNoEtaBeforeTheResumedRunMakesProgress() {
+        assertEquals(-1, new ImportProgress(3000, 300, 400, SECOND, 3000, 300).getEtaSeconds());
+        assertEquals(-1, new ImportProgress(0, 0, 400, 0).getEtaSeconds());
+    }
+}
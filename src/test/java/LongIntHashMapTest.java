@@ -0,0 +1,44 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the open-addressing long to int map
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LongIntHashMapTest {
+
+    @Test
+    void matchesHashMapUnderPutsAndRemoves() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(2000) + 1; // few keys, so probe runs overlap
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 2000; key++) {
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key, -1));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    void rejectsTheEmptySlotKey() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.remove(0));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the memory-mapped CSV parser
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedCsvParserTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitsQuotedFieldsAndEscapedQuotes() throws Exception {
+        List<List<String>> rows = parse("a,\"b, c\",\"say \"\"hi\"\"\"\n,, x \n", 1024);
+        assertEquals(Arrays.asList("a", "b, c", "say \"hi\""), rows.get(0));
+        assertEquals(Arrays.asList("", "", "x"), rows.get(1));
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    void handlesAllLineTerminators() throws Exception {
+        List<List<String>> rows = parse("a\r\nb\rc\nd", 1024);
+        assertEquals(4, rows.size());
+        assertEquals("d", rows.get(3).get(0));
+    }
+
+    @Test
+    void givesTheSameRowsForEveryRegionSize() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            csv.append(i).append(",\"Hosp, ").append(i % 7).append("\",\"q\"\"").append(i).append("\"")
+                    .append(i % 5 == 0 ? "\r\n" : "\n");
+            if (i % 50 == 0) {
+                // Longer than the smallest region, so the parser has to map more
+                csv.append("long,\"");
+                for (int j = 0; j < 40; j++) csv.append("x,");
+                csv.append("\"\n");
+            }
+        }
+        List<List<String>> expected = parse(csv.toString(), 1 << 20);
+        for (int regionSize = 64; regionSize <= 256; regionSize += 7) {
+            assertEquals(expected, parse(csv.toString(), regionSize), "region size " + regionSize);
+        }
+        assertEquals(Arrays.asList("10", "Hosp, 3", "q\"10"), expected.get(10 + 1));
+    }
+
+    @Test
+    void reportsOffsetsToResumeFrom() throws Exception {
+        Path file = write("h1,h2\nr1,x\r\nr2,y\n");
+        try (MappedCsvParser parser = new MappedCsvParser(file, 64)) {
+            long afterHeader = parser.parse(0, row -> false);
+            assertEquals(6, afterHeader);
+            List<Long> offsets = new ArrayList<>();
+            long end = parser.parse(afterHeader, row -> {
+                offsets.add(row.getOffset());
+                offsets.add(row.getEndOffset());
+                return true;
+            });
+            assertEquals(Arrays.asList(6L, 10L, 12L, 16L), offsets);
+            assertEquals(parser.size(), end);
+        }
+    }
+
+    @Test
+    void decodesUtf8Fields() throws Exception {
+        assertEquals(Arrays.asList("Zo\u00eb", "\u65e5\u672c"), parse("Zo\u00eb,\"\u65e5\u672c\"\n", 64).get(0));
+    }
+
+    private List<List<String>> parse(String content, int regionSize) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        try (MappedCsvParser parser = new MappedCsvParser(write(content), regionSize)) {
+            parser.parse(0, row -> {
+                List<String> fields = new ArrayList<>();
+                for (int i = 0; i < row.fieldCount(); i++) {
+                    fields.add(row.getString(i));
+                }
+                rows.add(fields);
+                return true;
+            });
+        }
+        return rows;
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = Files.createTempFile(dir, "rows", ".csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
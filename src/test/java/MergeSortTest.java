@@ -0,0 +1,95 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the report merge sort
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class MergeSortTest {
+    // Around the insertion and parallel thresholds, odd sizes and several parallel splits
+    private static final int[] SIZES = {0, 1, 2, 31, 32, 33, 65, 1000, 8191, 8192, 8193, 50001, 100003};
+
+    @Test
+    void sortsAscendingAndKeepsEqualKeysInOrder() {
+        for (int size : SIZES) {
+            List<Item> items = randomItems(size, 50);
+            List<Item> expected = new ArrayList<>(items);
+            expected.sort(Comparator.comparingInt(item -> item.key)); // List.sort is stable
+            assertEquals(expected, MergeSort.sorted(items, item -> item.key), "size " + size);
+            assertEquals(expected, MergeSort.parallelSorted(items, item -> item.key), "parallel size " + size);
+        }
+    }
+
+    @Test
+    void sortsDescendingAndKeepsEqualKeysInOrder() {
+        for (int size : SIZES) {
+            List<Item> items = randomItems(size, 50);
+            List<Item> expected = new ArrayList<>(items);
+            expected.sort(Comparator.comparingDouble((Item item) -> item.amount).reversed());
+            assertEquals(expected, MergeSort.sortedDescending(items, item -> item.amount), "size " + size);
+            assertEquals(expected, MergeSort.parallelSortedDescending(items, item -> item.amount),
+                    "parallel size " + size);
+        }
+    }
+
+    @Test
+    void handlesSortedAndReversedInput() {
+        List<Integer> ascending = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            ascending.add(i);
+        }
+        List<Integer> descending = new ArrayList<>(ascending);
+        Collections.reverse(descending);
+        assertEquals(ascending, MergeSort.parallelSorted(ascending, i -> i));
+        assertEquals(ascending, MergeSort.parallelSorted(descending, i -> i));
+        assertEquals(descending, MergeSort.parallelSortedDescending(ascending, i -> i));
+        assertEquals(descending, MergeSort.sortedDescending(descending, i -> i));
+    }
+
+    @Test
+    void leavesTheInputUnchanged() {
+        List<Item> items = randomItems(1000, 10);
+        List<Item> copy = new ArrayList<>(items);
+        MergeSort.parallelSorted(items, item -> item.key);
+        assertEquals(copy, items);
+    }
+
+    private static List<Item> randomItems(int size, int distinctKeys) {
+        Random random = new Random(size);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int key = random.nextInt(distinctKeys);
+            items.add(new Item(i, key, key * 1.5));
+        }
+        return items;
+    }
+
+    /**
+     * A key and the position it had in the input, to check stability.
+     */
+    private static final class Item {
+        private final int position;
+        private final int key;
+        private final double amount;
+
+        Item(int position, int key, double amount) {
+            this.position = position;
+            this.key = key;
+            this.amount = amount;
+        }
+
+        @Override
+        public String toString() {
+            return key + "@" + position;
+        }
+    }
+}
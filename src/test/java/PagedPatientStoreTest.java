@@ -0,0 +1,149 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the disk-backed B+ tree patient store
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PagedPatientStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsPatientsInIdOrderAcrossManySplits() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            ids.add(i * 3);
+        }
+        Collections.shuffle(ids, new Random(42));
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 16)) {
+            for (int id : ids) {
+                store.insert(new Patient(id, "P" + id, 30, "c"));
+            }
+            assertEquals(20000, store.size());
+            int[] expected = {0};
+            store.forEachPatientID(id -> {
+                assertEquals(expected[0], id);
+                expected[0] += 3;
+            });
+            assertEquals(60000, expected[0]);
+            assertEquals("P2997", store.search(2997).getName());
+            assertNull(store.search(2998));
+        }
+    }
+
+    @Test
+    void ignoresDuplicateIds() throws Exception {
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 16)) {
+            store.insert(new Patient(5, "First", 30, "c"));
+            store.insert(new Patient(5, "Second", 40, "c"));
+            assertEquals(1, store.size());
+            assertEquals("First", store.search(5).getName());
+        }
+    }
+
+    @Test
+    void writesBackChangesAndReopens() throws Exception {
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 4)) {
+            for (int id = 1; id <= 1000; id++) {
+                store.insert(new Patient(id, "P" + id, 30, "c"));
+            }
+            store.search(7).setName("Changed");
+            store.search(7).addVisitRecord("2024-01-01");
+            store.delete(8);
+        }
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 4)) {
+            assertEquals(999, store.size());
+            Patient patient = store.search(7);
+            assertEquals("Changed", patient.getName());
+            assertEquals(List.of("2024-01-01"), patient.getVisitRecords());
+            assertNull(store.search(8));
+        }
+    }
+
+    @Test
+    void opensAfterUncleanShutdown() throws Exception {
+        PagedPatientStore crashed = new PagedPatientStore(dir, 8, 4);
+        for (int id = 0; id < 5000; id++) {
+            crashed.insert(new Patient(id, "P" + id, 30, "c"));
+        }
+        // Open the same files without the first store having flushed
+        try (PagedPatientStore reopened = new PagedPatientStore(dir, 8, 4)) {
+            int[] count = {0};
+            int[] last = {-1};
+            reopened.forEachPatientID(id -> {
+                assertTrue(id > last[0]);
+                last[0] = id;
+                count[0]++;
+            });
+            assertTrue(count[0] > 0 && count[0] <= 5000, "count " + count[0]);
+            assertEquals(count[0], reopened.size());
+            assertEquals("P" + last[0], reopened.search(last[0]).getName());
+        }
+        crashed.close();
+    }
+
+    @Test
+    void returnsEvictedPatientThatIsStillHeld() throws Exception {
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 2)) {
+            PatientManagementSystem system = new PatientManagementSystem(store);
+            system.addPatient(1, "Ann", 30, "c");
+            Appointment appointment = system.scheduleAppointment(1, "2024-01-01", "10:00");
+            for (int id = 2; id < 100; id++) {
+                system.addPatient(id, "P" + id, 30, "c");
+            }
+            assertSame(appointment.getPatient(), system.findPatient(1));
+        }
+    }
+
+    @Test
+    void reopenedSystemHasBillingForStoredPatients() throws Exception {
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 4)) {
+            PatientManagementSystem system = new PatientManagementSystem(store);
+            system.addPatient(10, "Ann", 30, "c");
+            system.addPatient(11, "Bob", 40, "c");
+        }
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 4)) {
+            PatientManagementSystem system = new PatientManagementSystem(store);
+            assertNotNull(system.getBilling(10));
+            assertNotNull(system.getBilling(11));
+            assertTrue(system.generateBill(11, 50));
+            assertEquals(12, system.allocatePatientID(10));
+        }
+    }
+
+    @Test
+    void exportReadsColdPatientsWithoutCachingThem() throws Exception {
+        try (PagedPatientStore store = new PagedPatientStore(dir, 8, 4)) {
+            PatientManagementSystem system = new PatientManagementSystem(store);
+            for (int id = 1; id <= 200; id++) {
+                system.addPatient(id, "P" + id, 30, "c");
+            }
+            for (int id = 1; id <= 4; id++) {
+                system.findPatient(id).setName("Hot " + id);
+            }
+            LruCache.CacheStats before = store.getCacheStats();
+            long dataSize = Files.size(dir.resolve("patients.dat"));
+
+            assertEquals(200, system.exportData("patients", DataExporter.Format.CSV, dir.resolve("out.csv")));
+            LruCache.CacheStats after = store.getCacheStats();
+            assertEquals(before.getEvictions(), after.getEvictions());
+            assertEquals(before.getHits() + before.getMisses(), after.getHits() + after.getMisses());
+            assertEquals(dataSize, Files.size(dir.resolve("patients.dat")));
+            List<String> lines = Files.readAllLines(dir.resolve("out.csv"));
+            assertTrue(lines.get(1).startsWith("1,Hot 1,"), lines.get(1));
+            assertTrue(lines.get(200).startsWith("200,P200,"), lines.get(200));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the balanced in-memory patient tree
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+public class PatientBSTTest {
+
+    @Test
+    void staysShallowForAscendingBatches() {
+        PatientBST tree = new PatientBST();
+        int id = 0;
+        for (int batch = 0; batch < 200; batch++) {
+            List<Patient> patients = new ArrayList<>();
+            for (int i = 0; i < 1024; i++) {
+                patients.add(new Patient(id++, "P", 30, "c"));
+            }
+            tree.insertAll(patients);
+        }
+        List<Patient> all = tree.getAllPatients();
+        assertEquals(id, all.size());
+        assertTrue(height(all) <= maxHeight(all.size()), "height " + height(all));
+        assertEquals(150000, tree.search(150000).getPatientID());
+    }
+
+    @Test
+    void matchesTreeSetUnderRandomInsertsAndDeletes() {
+        PatientBST tree = new PatientBST();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                tree.delete(id);
+                expected.remove(id);
+            } else {
+                tree.insert(new Patient(id, "P" + id, 30, "c"));
+                expected.add(id);
+            }
+        }
+        List<Patient> all = tree.getAllPatients();
+        List<Integer> ids = new ArrayList<>();
+        for (Patient patient : all) {
+            ids.add(patient.getPatientID());
+        }
+        assertEquals(new ArrayList<>(expected), ids);
+        assertTrue(height(all) <= maxHeight(all.size()), "height " + height(all));
+        for (int id = -100; id < 4900; id++) {
+            assertEquals(expected.contains(id), tree.search(id) != null);
+        }
+    }
+
+    @Test
+    void ignoresDuplicateIds() {
+        PatientBST tree = new PatientBST();
+        List<Patient> patients = new ArrayList<>();
+        for (int id = 0; id < 100; id++) {
+            patients.add(new Patient(id, "P" + id, 30, "c"));
+        }
+        Collections.shuffle(patients, new Random(1));
+        tree.insertAll(patients);
+        tree.insert(new Patient(5, "Other", 30, "c"));
+        assertEquals(100, tree.getAllPatients().size());
+        assertEquals("P5", tree.search(5).getName());
+    }
+
+    @Test
+    void batchAcceptsTheSameIdsAsAddPatient() {
+        PatientManagementSystem system = new PatientManagementSystem();
+        assertTrue(system.addPatient(-1, "Single", 30, "c"));
+        List<PatientSpec> specs = new ArrayList<>();
+        specs.add(new PatientSpec(0, "Zero", 30, "c"));
+        specs.add(new PatientSpec(-2, "Negative", 30, "c"));
+        specs.add(new PatientSpec(3, " ", 30, "c"));
+        assertEquals(List.of(PatientSpec.Result.CREATED, PatientSpec.Result.CREATED, PatientSpec.Result.INVALID),
+                system.addPatientsBatch(specs));
+        assertEquals("Negative", system.findPatient(-2).getName());
+        assertEquals(3, system.getAllPatients().size());
+    }
+
+    // Log base 4/3 of n, plus one for the root
+    private static int maxHeight(int n) {
+        return (int) (Math.log(n) / Math.log(4.0 / 3)) + 1;
+    }
+
+    private static int height(List<Patient> nodes) {
+        Set<Patient> children = new HashSet<>();
+        for (Patient node : nodes) {
+            if (node.getLeft() != null) children.add(node.getLeft());
+            if (node.getRight() != null) children.add(node.getRight());
+        }
+        for (Patient node : nodes) {
+            if (!children.contains(node)) return height(node);
+        }
+        return 0;
+    }
+
+    private static int height(Patient node) {
+        if (node == null) return 0;
+        return 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+    }
+}
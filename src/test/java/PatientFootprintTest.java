@@ -0,0 +1,118 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Heap footprint of Patient before and after the compact layout
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the retained heap per patient for the original layout (two
+ * eagerly allocated ArrayLists) and the current one, and prints both.
+ * Strings are shared between patients so that only the layout is measured.
+ */
+public class PatientFootprintTest {
+    private static final int COUNT = 200_000;
+    private static final String NAME = "Leslie Terry";
+    private static final String CONTACT = "Medicare";
+    private static final String VISIT = "2024-02-27 - Discharge (Emergency)";
+
+    @Test
+    void compactLayoutIsSmallerWithoutHistory() {
+        long before = bytesPerObject(i -> new OriginalPatient(i, NAME, 30, CONTACT));
+        long after = bytesPerObject(i -> new Patient(i, NAME, 30, CONTACT));
+        System.out.println("Patient without history: " + before + " bytes before, " + after + " bytes after");
+        assertTrue(after < before, before + " -> " + after);
+    }
+
+    @Test
+    void compactLayoutIsSmallerWithOneVisitRecord() {
+        long before = bytesPerObject(i -> {
+            OriginalPatient p = new OriginalPatient(i, NAME, 30, CONTACT);
+            p.visitRecords.add(VISIT);
+            return p;
+        });
+        long after = bytesPerObject(i -> {
+            Patient p = new Patient(i, NAME, 30, CONTACT);
+            p.addVisitRecord(VISIT);
+            return p;
+        });
+        System.out.println("Patient with one visit record: " + before + " bytes before, " + after + " bytes after");
+        assertTrue(after < before, before + " -> " + after);
+    }
+
+    @Test
+    void readingDoesNotAllocateLazyFields() {
+        Patient patient = new Patient(1, NAME, 30, CONTACT);
+        assertTrue(patient.readMedicalHistory().isEmpty());
+        assertTrue(patient.readVisitRecords().isEmpty());
+        assertNull(patient.readClinicalAttributes().getDiagnosis());
+        PatientCodec.encode(patient);
+        patient.getPatientInfo();
+        assertFalse(patient.hasClinicalAttributes());
+        assertThrows(UnsupportedOperationException.class, () -> patient.readVisitRecords().add("x"));
+        assertThrows(UnsupportedOperationException.class, () -> patient.readClinicalAttributes().setDiagnosis("x"));
+    }
+
+    private static long bytesPerObject(IntFunction<Object> factory) {
+        Object[] keep = new Object[COUNT];
+        long start = usedHeap();
+        for (int i = 0; i < COUNT; i++) {
+            keep[i] = factory.apply(i);
+        }
+        long end = usedHeap();
+        assertEquals(COUNT, countNonNull(keep));
+        return (end - start) / COUNT;
+    }
+
+    private static int countNonNull(Object[] objects) {
+        int n = 0;
+        for (Object o : objects) {
+            if (o != null) n++;
+        }
+        return n;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The Patient fields as they were before the compact layout.
+     */
+    @SuppressWarnings("unused")
+    private static class OriginalPatient {
+        private int patientID;
+        private String name;
+        private int age;
+        private String contactInfo;
+        private List<String> medicalHistory;
+        private List<String> visitRecords;
+        private OriginalPatient left;
+        private OriginalPatient right;
+
+        OriginalPatient(int patientID, String name, int age, String contactInfo) {
+            this.patientID = patientID;
+            this.name = name;
+            this.age = age;
+            this.contactInfo = contactInfo;
+            this.medicalHistory = new ArrayList<>();
+            this.visitRecords = new ArrayList<>();
+        }
+    }
+}
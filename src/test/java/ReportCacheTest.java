@@ -0,0 +1,62 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the versioned report cache
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class ReportCacheTest {
+
+    @Test
+    void regeneratesOnlyWhenTheVersionChanges() {
+        ReportCache cache = new ReportCache(8, 1000);
+        AtomicInteger builds = new AtomicInteger();
+        assertEquals("r1", cache.get("a", 1, () -> "r" + builds.incrementAndGet()));
+        assertEquals("r1", cache.get("a", 1, () -> "r" + builds.incrementAndGet()));
+        assertEquals("r2", cache.get("a", 2, () -> "r" + builds.incrementAndGet()));
+        assertEquals(2, builds.get());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(2, cache.getCachedChars());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedReportsPastTheCharacterBudget() {
+        ReportCache cache = new ReportCache(64, 1000);
+        String report = "x".repeat(300);
+        cache.get("a", 1, () -> report);
+        cache.get("b", 1, () -> report);
+        cache.get("c", 1, () -> report);
+        cache.get("a", 1, () -> "rebuilt"); // a is now the most recently used
+        cache.get("d", 1, () -> report);
+        assertEquals(900, cache.getCachedChars());
+        assertEquals(report, cache.get("a", 1, () -> "rebuilt"));
+        assertEquals("rebuilt", cache.get("b", 1, () -> "rebuilt"));
+        assertTrue(cache.getCachedChars() <= 1000);
+    }
+
+    @Test
+    void doesNotCacheReportsOverHalfTheBudget() {
+        ReportCache cache = new ReportCache(64, 1000);
+        cache.get("small", 1, () -> "s");
+        String huge = "x".repeat(600);
+        assertEquals(huge, cache.get("huge", 1, () -> huge));
+        assertEquals(1, cache.getCachedChars());
+        assertEquals("again", cache.get("huge", 1, () -> "again"));
+        assertEquals("s", cache.get("small", 1, () -> "other"));
+    }
+
+    @Test
+    void countEvictionsKeepTheTotalInStep() {
+        ReportCache cache = new ReportCache(2, 1000);
+        cache.get("a", 1, () -> "aaaa");
+        cache.get("b", 1, () -> "bb");
+        cache.get("c", 1, () -> "c");
+        assertEquals(3, cache.getCachedChars());
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+}
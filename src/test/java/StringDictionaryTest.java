@@ -0,0 +1,64 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the string dictionary and clinical value interning
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class StringDictionaryTest {
+
+    @Test
+    void givesEachValueOneSharedCopyUnderConcurrentUse() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    String[] copies = new String[1000];
+                    for (int i = 0; i < copies.length; i++) {
+                        copies[i] = dictionary.canonical("value" + i);
+                    }
+                    return copies;
+                }));
+            }
+            String[] first = results.get(0).get();
+            for (Future<String[]> result : results) {
+                String[] copies = result.get();
+                for (int i = 0; i < copies.length; i++) {
+                    assertSame(first[i], copies[i]);
+                }
+            }
+            assertEquals(1000, dictionary.size());
+            assertEquals("value7", first[7]);
+            assertNull(dictionary.canonical(null));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void internsOnlyLowCardinalityFields() {
+        StringDictionary dictionary = new StringDictionary();
+        ClinicalAttributes first = new ClinicalAttributes();
+        first.setBloodType(new String("A+"));
+        first.setDoctor(new String("Dr Smith"));
+        ClinicalAttributes second = new ClinicalAttributes();
+        second.setBloodType(new String("A+"));
+        second.setDoctor(new String("Dr Smith"));
+        first.intern(dictionary);
+        second.intern(dictionary);
+        assertSame(first.getBloodType(), second.getBloodType());
+        assertNotSame(first.getDoctor(), second.getDoctor());
+        assertEquals(1, dictionary.size());
+    }
+}
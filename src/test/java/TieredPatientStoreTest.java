@@ -0,0 +1,82 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for the hot/cold tiered patient store
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TieredPatientStoreTest {
+
+    @Test
+    void rehydratesColdPatientsWithTheirChanges() {
+        TieredPatientStore store = new TieredPatientStore(2);
+        for (int id = 1; id <= 10; id++) {
+            store.insert(new Patient(id, "P" + id, 30, "c"));
+        }
+        store.search(1).setName("Changed");
+        for (int id = 2; id <= 10; id++) {
+            store.search(id);
+        }
+        assertEquals(10, store.size());
+        assertTrue(store.getColdCount() >= 8);
+        assertEquals("Changed", store.search(1).getName());
+        List<Patient> all = store.getAllPatients();
+        assertEquals(10, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i + 1, all.get(i).getPatientID());
+        }
+    }
+
+    @Test
+    void returnsColdPatientThatIsStillHeld() {
+        TieredPatientStore store = new TieredPatientStore(2);
+        PatientManagementSystem system = new PatientManagementSystem(store);
+        system.addPatient(1, "Ann", 30, "c");
+        VisitPlan plan = system.createVisitPlan(1, "2024-01-01", "Checkup", "Dr X");
+        for (int id = 2; id < 50; id++) {
+            system.addPatient(id, "P" + id, 30, "c");
+        }
+        plan.getPatient().setName("Ann B");
+        assertSame(plan.getPatient(), system.findPatient(1));
+        assertEquals("Ann B", system.findPatient(1).getName());
+    }
+
+    @Test
+    void countsHitsMissesAndEvictions() {
+        TieredPatientStore store = new TieredPatientStore(2);
+        for (int id = 1; id <= 3; id++) {
+            store.insert(new Patient(id, "P" + id, 30, "c"));
+        }
+        store.search(3);
+        store.search(1);
+        LruCache.CacheStats stats = store.getCacheStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertTrue(stats.getEvictions() >= 1);
+    }
+
+    @Test
+    void peekLeavesTheHotTierAlone() {
+        TieredPatientStore store = new TieredPatientStore(2);
+        for (int id = 1; id <= 10; id++) {
+            store.insert(new Patient(id, "P" + id, 30, "c"));
+        }
+        // Hot tier is 9 then 10; peeking 10 before 9 must not change which is eldest
+        for (int id = 10; id >= 1; id--) {
+            assertEquals("P" + id, store.peek(id).getName());
+        }
+        assertNull(store.peek(11));
+        assertEquals(8, store.getColdCount());
+        LruCache.CacheStats stats = store.getCacheStats();
+        assertEquals(0, stats.getHits() + stats.getMisses());
+
+        store.insert(new Patient(11, "P11", 30, "c"));
+        store.search(10);
+        assertEquals(1, store.getCacheStats().getHits()); // 9 was evicted, 10 was not
+    }
+}
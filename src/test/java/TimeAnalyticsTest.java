@@ -0,0 +1,57 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for date-bucketed analytics and the analytics report
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+public class TimeAnalyticsTest {
+
+    @Test
+    void reportKeepsStrayDatesOutOfTheMonthTable() {
+        PatientManagementSystem system = new PatientManagementSystem();
+        system.addPatient(10001, "Ann", 40, "c");
+        system.generateBill(10001, 100, "2024-01-15");
+        system.generateBill(10001, 50, "2024-06-02");
+        system.generateBill(10001, 7, "0001-01-01");
+        system.addPayment(10001, 20, "9999-12-31");
+
+        String report = system.generateAnalyticsReport();
+        assertTrue(report.contains("Period: 2024-01-15 to 2024-06-02"), report);
+        assertTrue(report.contains("2024-01    $100.00"), report);
+        assertTrue(report.contains("2024-06    $50.00"), report);
+        assertFalse(report.contains("2024-03"), report); // months without data are left out
+        assertTrue(report.contains("Total Billed: $150.00"), report);
+        assertTrue(report.contains("0001-01-01  $7.00"), report);
+        assertTrue(report.contains("9999-12-31  $0.00             $20.00"), report);
+        assertTrue(report.length() < 2000, report);
+    }
+
+    @Test
+    void reportsOnlyStrayDatesWhenNoneFallInTheWindow() {
+        PatientManagementSystem system = new PatientManagementSystem();
+        system.addPatient(10001, "Ann", 40, "c");
+        system.generateBill(10001, 7, "0001-01-01");
+        String report = system.generateAnalyticsReport();
+        assertTrue(report.contains("Period: no dates within 1970-2099"), report);
+        assertTrue(report.contains("0001-01-01"), report);
+    }
+
+    @Test
+    void listsOutlierDatesAcrossHistograms() {
+        TimeAnalytics analytics = new TimeAnalytics();
+        analytics.recordBill("0001-01-01", 1);
+        analytics.recordPayment("9999-12-31", 2);
+        analytics.recordAppointment("3000-05-05", 1);
+        analytics.recordAppointment("3000-05-05", -1);
+        analytics.recordBill("2024-01-01", 3);
+        assertEquals("[0001-01-01, 9999-12-31]", analytics.getOutlierDates().toString());
+        assertEquals(LocalDate.of(2024, 1, 1), analytics.getFirstDate());
+        assertEquals(LocalDate.of(2024, 1, 1), analytics.getLastDate());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Hospital Patient Management System
+ * Course: Data Structures
+ *
+ * Tests for bounded-heap top-k selection
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TopKTest {
+
+    @Test
+    void matchesThePrefixOfAStableSort() {
+        Random random = new Random(11);
+        List<double[]> items = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            items.add(new double[] {random.nextInt(100), i}); // many equal keys
+        }
+        List<double[]> descending = new ArrayList<>(items);
+        descending.sort(Comparator.comparingDouble((double[] item) -> item[0]).reversed());
+        List<double[]> ascending = new ArrayList<>(items);
+        ascending.sort(Comparator.comparingDouble(item -> item[0]));
+        for (int k : new int[] {1, 7, 100, 4999, 5000}) {
+            assertEquals(descending.subList(0, k), TopK.largest(items, k, item -> item[0]), "k " + k);
+            assertEquals(ascending.subList(0, k), TopK.smallest(items, k, item -> item[0]), "k " + k);
+        }
+    }
+
+    @Test
+    void acceptsKLargerThanTheInput() {
+        List<Integer> items = List.of(3, 1, 2);
+        assertEquals(List.of(3, 2, 1), TopK.largest(items, Integer.MAX_VALUE, i -> i));
+        // An Iterable of unknown size grows the heap as items arrive
+        Iterable<Integer> iterable = items::iterator;
+        assertEquals(List.of(1, 2, 3), TopK.smallest(iterable, Integer.MAX_VALUE, i -> i));
+        List<Integer> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add(i);
+        }
+        Iterable<Integer> manyIterable = many::iterator;
+        assertEquals(many, TopK.smallest(manyIterable, Integer.MAX_VALUE, i -> i));
+    }
+
+    @Test
+    void systemReportsEveryBillForHugeK() {
+        PatientManagementSystem system = new PatientManagementSystem();
+        for (int id = 1; id <= 5; id++) {
+            system.addPatient(id, "P" + id, 30, "c");
+            system.generateBill(id, id * 10.0);
+        }
+        List<Billing> top = system.topOutstanding(Integer.MAX_VALUE);
+        assertEquals(5, top.size());
+        assertEquals(5, top.get(0).getPatientID());
+        assertEquals(1, system.bottomOutstanding(Integer.MAX_VALUE).get(0).getPatientID());
+    }
+
+    @Test
+    void handlesEmptyAndInvalidK() {
+        assertTrue(TopK.largest(List.of(1, 2), 0, i -> i).isEmpty());
+        assertTrue(TopK.largest(new ArrayList<Integer>(), 5, i -> i).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> TopK.largest(List.of(1), -1, i -> i));
+    }
+}